@@ -0,0 +1,91 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single threaded benchmarks of every {@link DateCodeBuilder} operation.
+ *
+ * Run with {@code mvn -P jmh test-compile exec:exec}; results are written as JSON to
+ * {@code target/jmh-result.json} together with the allocation rate from the GC profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateCodeBuilderBenchmark {
+    @Param({"Air", "Ocean", "Surface"})
+    public String conveyanceType;
+
+    private DateCodeBuilder dateCodeBuilder;
+    private Calendar calendar;
+    private String dateCode;
+
+    @Setup
+    public void setUp() {
+        dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+
+        // Calendars are not thread safe, so every thread encodes its own
+        calendar = Calendar.getInstance(TimeZone.getTimeZone(dateCodeBuilder.getZone()));
+        dateCode = dateCodeBuilder.getCode(calendar);
+    }
+
+    @Benchmark
+    public String getCode() {
+        return dateCodeBuilder.getCode();
+    }
+
+    @Benchmark
+    public String getCodeForCalendar() {
+        return dateCodeBuilder.getCode(calendar);
+    }
+
+    @Benchmark
+    public List<Date> getCalendarDatesForCode() {
+        return dateCodeBuilder.getCalendarDatesForCode(dateCode);
+    }
+
+    @Benchmark
+    public boolean isValidFormat() {
+        return dateCodeBuilder.isValidFormat(dateCode);
+    }
+}
@@ -23,85 +23,334 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.TimeZone;
+import java.util.Spliterator;
 
 /**
  * Created by bfemmer on 6/7/2016.
  */
 public class AirDateCodeBuilder implements DateCodeBuilder {
-    private static AirDateCodeBuilder instance = null;
-    
-    private final String[] hourCodes = {"A", "B", "C", "D",
+
+    // The hour code is based on GMT time
+    private static final ZoneId ZONE = ZoneId.of("GMT");
+
+    private static final String[] HOUR_CODES = {"A", "B", "C", "D",
             "E", "F", "G", "H", "J", "K", "L", "M", "N", "P",
             "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z"};
 
+    /**
+     * Precomputed air conveyance codes indexed by {@code (dayOfYear % 100) * 24 + hour}
+     */
+    private static final String[] CODE_TABLE = buildCodeTable();
+
+    private static final int CODE_LENGTH = 3;
+
+    /**
+     * ASCII bytes of {@link #CODE_TABLE}, {@value #CODE_LENGTH} per code
+     */
+    private static final byte[] CODE_BYTES = DateCodeTables.toAscii(CODE_TABLE, CODE_LENGTH);
+
+    /**
+     * Hour code index of every ASCII character, or -1 for characters that are not hour codes
+     */
+    private static final byte[] HOUR_INDEX = buildHourIndex();
+
+    // At most five days in a year and a day share the same last two digits
+    private static final int MAX_CANDIDATE_COUNT = 5;
+
+    // Created last, once every table above is initialized
+    private static final AirDateCodeBuilder INSTANCE = new AirDateCodeBuilder();
+
+    private final Clock clock;
+
+    /**
+     * Creates a builder that reads the current time from the system clock
+     */
+    public AirDateCodeBuilder() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Creates a builder that reads the current time from a clock
+     *
+     * @param clock source of the current time (its time zone is ignored, as codes are GMT based)
+     */
+    public AirDateCodeBuilder(Clock clock) {
+        this.clock = clock.withZone(ZONE);
+    }
+
     public static AirDateCodeBuilder getInstance() {
-        if (instance == null) {
-            instance = new AirDateCodeBuilder();
-        }
-        
-        return instance;
+        return INSTANCE;
     }
     
     @Override
-    public String getCode() {
-        // Setup the calendar using the GMT timezone.
-        return getCode(Calendar.getInstance(TimeZone.getTimeZone("GMT")));
+    public String getCode(Calendar calendar) {
+        return generateAirConveyanceCode(calendar);
     }
 
     @Override
-    public String getCode(Calendar calendar) {
-        return generateAirConveyanceCode(calendar);
+    public String getCode(ZonedDateTime dateTime) {
+        return generateAirConveyanceCode(dateTime.getDayOfYear(), dateTime.getHour());
+    }
+
+    @Override
+    public String getCodeForEpochDay(long epochDay) {
+        return generateAirConveyanceCode(EpochDays.dayOfYear(epochDay), 0);
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis) {
+        long epochDay = EpochDays.fromEpochMillis(epochMillis);
+        return generateAirConveyanceCode(EpochDays.dayOfYear(epochDay), EpochDays.hourOfDay(epochMillis));
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis, ZoneId zone) {
+        return getCodeForEpochMillis(epochMillis);
+    }
+
+    @Override
+    public int getCodeLength() {
+        return CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            long millis = epochMillis[i];
+            int dayOfYear = EpochDays.dayOfYear(EpochDays.fromEpochMillis(millis));
+            int source = ((dayOfYear % 100) * HOUR_CODES.length + EpochDays.hourOfDay(millis)) * CODE_LENGTH;
+            destination[target] = CODE_BYTES[source];
+            destination[target + 1] = CODE_BYTES[source + 1];
+            destination[target + 2] = CODE_BYTES[source + 2];
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochDays(long[] epochDays, int offset, int length, byte[] destination,
+                               int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            // Start of the day is hour code "A"
+            int source = (EpochDays.dayOfYear(epochDays[i]) % 100) * HOUR_CODES.length * CODE_LENGTH;
+            destination[target] = CODE_BYTES[source];
+            destination[target + 1] = CODE_BYTES[source + 1];
+            destination[target + 2] = CODE_BYTES[source + 2];
+        }
+        return length * CODE_LENGTH;
     }
 
     @Override
     public List<Date> getCalendarDatesForCode(String dateCode) {
-        return getCalendarDatesForDateCode(dateCode);
+        long[] epochHours = getEpochHoursForDateCode(dateCode, clock.millis());
+        List<Date> values = new ArrayList<>(epochHours.length);
+        for (long epochHour : epochHours) {
+            values.add(new Date(epochHour * EpochDays.MILLIS_PER_HOUR));
+        }
+        return values;
     }
 
     @Override
-    public boolean isValidFormat(String dateCode) {
-        boolean isValid = true;
+    public List<ZonedDateTime> getDateTimesForCode(String dateCode) {
+        return getDateTimesForCode(dateCode, clock.millis());
+    }
 
-        // Validate length
-        if (dateCode.length() != 3) isValid = false;
+    @Override
+    public List<ZonedDateTime> getDateTimesForCode(String dateCode, Instant reference) {
+        return getDateTimesForCode(dateCode, reference.toEpochMilli());
+    }
+
+    @Override
+    public List<LocalDate> getLocalDatesForCode(String dateCode) {
+        long[] epochHours = getEpochHoursForDateCode(dateCode, clock.millis());
+        List<LocalDate> values = new ArrayList<>(epochHours.length);
+        for (long epochHour : epochHours) {
+            values.add(LocalDate.ofEpochDay(Math.floorDiv(epochHour, 24L)));
+        }
+        return values;
+    }
+
+    @Override
+    public long[] getEpochDaysForCode(String dateCode) {
+        return toEpochDays(getEpochHoursForDateCode(dateCode, clock.millis()));
+    }
+
+    @Override
+    public long[] getEpochDaysForCode(String dateCode, long referenceEpochDay) {
+        return toEpochDays(getEpochHoursForDateCode(dateCode, endOfDay(referenceEpochDay)));
+    }
 
-        // Validate first character as hour code
-        if (Arrays.asList(hourCodes).contains(dateCode.substring(0, 1).toUpperCase()))
-            isValid = false;
+    @Override
+    public int getEpochDaysForCode(ByteBuffer source, int index, int length, long[] destination,
+                                   int destinationOffset) {
+        return decodeEpochDays(source, index, length, clock.millis(), destination, destinationOffset);
+    }
 
-        // Validate last two characters as numeric
-        // Left trim dateCode parameter to just the last two characters
-        String code = dateCode.substring(dateCode.length() - 2);
+    @Override
+    public int getEpochDaysForCode(ByteBuffer source, int index, int length, long referenceEpochDay,
+                                   long[] destination, int destinationOffset) {
+        return decodeEpochDays(source, index, length, endOfDay(referenceEpochDay), destination,
+                destinationOffset);
+    }
 
-        // If not a number, will throw a NumberFormatException
-        try {
-            Integer.parseInt(code);
-        } catch (NumberFormatException numberFormatException) {
-            isValid = false;
+    @Override
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
         }
 
-        return isValid;
+        int count = findEpochHours(codeIndex % HOUR_CODES.length, codeIndex / HOUR_CODES.length,
+                referenceEpochMillis, destination, destinationOffset);
+        for (int i = destinationOffset; i < destinationOffset + count; i++) {
+            destination[i] = Math.floorDiv(destination[i], 24L);
+        }
+        return count;
     }
 
-    /**
-     * Generates a Julian date code
-     *
-     * The Julian date is a 3-digit string consisting of the 3 digit day of the year.
-     *
-     * @return Date code in the format DDD
-     */
-    private String generateJulianDateCode(Calendar calendar) {
-        int day = calendar.get(Calendar.DAY_OF_YEAR);
+    @Override
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, int[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
 
-        // Pad the date with leading zeros
-        return String.format(Locale.getDefault(), "%03d", day);
+        return findCandidates(codeIndex % HOUR_CODES.length, codeIndex / HOUR_CODES.length,
+                referenceEpochMillis, null, destination, destinationOffset);
+    }
+
+    @Override
+    public int getEpochHoursForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                         int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+
+        // GMT hours, so these are also hours since the epoch
+        return findEpochHours(codeIndex % HOUR_CODES.length, codeIndex / HOUR_CODES.length,
+                referenceEpochMillis, destination, destinationOffset);
+    }
+
+    @Override
+    public Spliterator<ZonedDateTime> getCandidateSpliterator(String dateCode, Instant from, Instant to,
+                                                              CandidateOrder order) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        if (from.isAfter(to)) throw new IllegalArgumentException("range ends before it starts");
+
+        // Every day of year ending in the two digits, in every year
+        int day = codeIndex / HOUR_CODES.length;
+        int firstDay = day == 0 ? 100 : day;
+        int[] daysOfYear = new int[(DateCodeTables.MAX_DAY_OF_YEAR - firstDay) / 100 + 1];
+        for (int i = 0; i < daysOfYear.length; i++) {
+            daysOfYear[i] = firstDay + i * 100;
+        }
+
+        return new CandidateSpliterator(from.toEpochMilli(), to.toEpochMilli(), ZONE, 1, 0, daysOfYear,
+                codeIndex % HOUR_CODES.length, false, order);
+    }
+
+    @Override
+    public int getMaxCandidateCount() {
+        return MAX_CANDIDATE_COUNT;
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        if (getHourIndex(dateCode.charAt(0)) < 0) return DecodeStatus.BAD_HOUR_LETTER;
+        if ((DateCodeTables.digit(dateCode.charAt(1)) | DateCodeTables.digit(dateCode.charAt(2))) < 0) {
+            return DecodeStatus.NON_NUMERIC;
+        }
+        return DecodeStatus.OK;
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        if (getHourIndex(source.get(index)) < 0) return DecodeStatus.BAD_HOUR_LETTER;
+        if ((DateCodeTables.digit(source.get(index + 1)) | DateCodeTables.digit(source.get(index + 2))) < 0) {
+            return DecodeStatus.NON_NUMERIC;
+        }
+        return DecodeStatus.OK;
+    }
+
+    @Override
+    public int getCodeSpaceSize() {
+        return CODE_TABLE.length;
+    }
+
+    @Override
+    public int getCodeIndex(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return -1;
+
+        int hour = getHourIndex(dateCode.charAt(0));
+        int tens = DateCodeTables.digit(dateCode.charAt(1));
+        int ones = DateCodeTables.digit(dateCode.charAt(2));
+        if ((hour | tens | ones) < 0) return -1;
+
+        return (tens * 10 + ones) * HOUR_CODES.length + hour;
+    }
+
+    @Override
+    public int getCodeIndex(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int hour = getHourIndex(source.get(index));
+        int tens = DateCodeTables.digit(source.get(index + 1));
+        int ones = DateCodeTables.digit(source.get(index + 2));
+        if ((hour | tens | ones) < 0) return -1;
+
+        return (tens * 10 + ones) * HOUR_CODES.length + hour;
+    }
+
+    @Override
+    public int getCodeIndex(byte[] source, int offset, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int hour = getHourIndex(source[offset]);
+        int tens = DateCodeTables.digit(source[offset + 1]);
+        int ones = DateCodeTables.digit(source[offset + 2]);
+        if ((hour | tens | ones) < 0) return -1;
+
+        return (tens * 10 + ones) * HOUR_CODES.length + hour;
+    }
+
+    @Override
+    public String getCodeAt(int codeIndex) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+        return CODE_TABLE[codeIndex];
+    }
+
+    @Override
+    public ChronoUnit getResolution() {
+        return ChronoUnit.HOURS;
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZONE;
     }
 
     /**
@@ -113,87 +362,170 @@ public class AirDateCodeBuilder implements DateCodeBuilder {
      * @return Date code in the format HDD
      */
     private String generateAirConveyanceCode(Calendar calendar) {
-        String code = generateJulianDateCode(calendar);
-
-        // Left-trim Julian date (only the last 2 digits are needed)
-        if (code.length() > 2) {
-            code = code.substring(code.length() - 2);
-        }
-
         // Extract hour component (this is our index into the hour code array)
-        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        return generateAirConveyanceCode(calendar.get(Calendar.DAY_OF_YEAR),
+                calendar.get(Calendar.HOUR_OF_DAY));
+    }
 
-        // Concatenate hour code to Julian code
-        code = hourCodes[hour] + code;
-        return code;
+    private static String generateAirConveyanceCode(int dayOfYear, int hour) {
+        // Only the last 2 digits of the Julian date are needed
+        return CODE_TABLE[(dayOfYear % 100) * HOUR_CODES.length + hour];
     }
 
     /**
-     * Gets the numerical hour corresponding to the date code
+     * Builds the table of every possible air conveyance code
      *
-     * The numerical hour corresponds to the index of the array element containing
-     * the hour code in the parameter. The method just iterates through the array
-     * and returns the index when a hit is found.
-     *
-     * @param hourCode the alpha character code to convert to hours
-     * @return array index containing the specified code
+     * @return interned codes indexed by {@code (dayOfYear % 100) * 24 + hour}
      */
-    private int getArrayIndexContainingHourCode(String hourCode) {
-        for (int i = 0; i < hourCodes.length; i++) {
-            if (hourCode.toUpperCase().equals(hourCodes[i])) {
-                return i;
+    private static String[] buildCodeTable() {
+        String[] codes = new String[100 * HOUR_CODES.length];
+        for (int day = 0; day < 100; day++) {
+            String julianCode = DateCodeTables.julianDayCode(day);
+            for (int hour = 0; hour < HOUR_CODES.length; hour++) {
+                codes[day * HOUR_CODES.length + hour] = (HOUR_CODES[hour] + julianCode.substring(1)).intern();
             }
         }
+        return codes;
+    }
 
-        return 0;
+    /**
+     * Gets the numerical hour corresponding to an ASCII hour code, ignoring case
+     *
+     * @param hourCode the alpha character code to convert to hours
+     * @return array index containing the specified code, or 0 if there is none
+     */
+    private static int getArrayIndexContainingHourCode(int hourCode) {
+        return Math.max(getHourIndex(hourCode), 0);
     }
 
-    private List<Date> getCalendarDatesForDateCode(String dateCode) {
-        String code;                     // Stores the "day" component of parameter
-        int hour;                        // Stores the "hour" component of parameter
-        String tempCode;                 // Temporary date code variable
-        List<Date> values = new ArrayList<>(); // List of dates that will get returned
+    /**
+     * Gets the hour code index of a character, ignoring case
+     *
+     * @param hourCode character to look up
+     * @return index into the hour code array, or -1 if the character is not an hour code
+     */
+    private static int getHourIndex(int hourCode) {
+        return hourCode >= 0 && hourCode < HOUR_INDEX.length ? HOUR_INDEX[hourCode] : -1;
+    }
 
-        // Use TimeZone.getTimeZone("GMT") versus Locale.getDefault() for the calendar instance
-        // as we care about the date AND the time. The hour code is based on GMT time, and this
-        // must be incorporated when calculating dates.
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    /**
+     * Maps ASCII characters to hour code indexes, ignoring case
+     */
+    private static byte[] buildHourIndex() {
+        byte[] index = new byte[128];
+        Arrays.fill(index, (byte) -1);
+        for (int i = 0; i < HOUR_CODES.length; i++) {
+            char hourCode = HOUR_CODES[i].charAt(0);
+            index[hourCode] = (byte) i;
+            index[Character.toLowerCase(hourCode)] = (byte) i;
+        }
+        return index;
+    }
 
-        // Extract hour component (this is our index into the hour code array)
-        tempCode = dateCode.substring(0, 1);
-        hour = getArrayIndexContainingHourCode(tempCode);
+    private List<ZonedDateTime> getDateTimesForCode(String dateCode, long referenceMillis) {
+        long[] epochHours = getEpochHoursForDateCode(dateCode, referenceMillis);
+        List<ZonedDateTime> values = new ArrayList<>(epochHours.length);
+        for (long epochHour : epochHours) {
+            values.add(Instant.ofEpochMilli(epochHour * EpochDays.MILLIS_PER_HOUR).atZone(ZONE));
+        }
+        return values;
+    }
 
-        // Left trim dateCode parameter to just the last two characters
-        code = dateCode.substring(dateCode.length() - 2);
+    private int decodeEpochDays(ByteBuffer source, int index, int length, long referenceMillis,
+                                long[] destination, int destinationOffset) {
+        // Validate length
+        if (length != CODE_LENGTH) throw new IllegalArgumentException("insufficient length in date code");
 
-        // If not a number, will throw a NumberFormatException
-        Integer.parseInt(code);
+        // Extract hour component and the day digits (throws a NumberFormatException if not a number)
+        int hour = getArrayIndexContainingHourCode(source.get(index));
+        int day = DateCodeTables.parseDigits(source, index + 1, index + CODE_LENGTH);
 
-        // Store current date
-        Date currentDate = calendar.getTime();
+        int count = findEpochHours(hour, day, referenceMillis, destination, destinationOffset);
+        for (int i = destinationOffset; i < destinationOffset + count; i++) {
+            destination[i] = Math.floorDiv(destination[i], 24L);
+        }
+        return count;
+    }
 
-        // Reset calendar to minus 1 year
-        calendar.add(Calendar.YEAR, -1);
+    /**
+     * Gets the last millisecond of a day, so that every hour of the day is in the past
+     */
+    private static long endOfDay(long epochDay) {
+        return (epochDay + 1) * EpochDays.MILLIS_PER_DAY - 1;
+    }
 
-        // Set the hour and reset minutes and seconds (which is done for display purposes)
-        calendar.set(Calendar.HOUR, hour);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
+    private static long[] toEpochDays(long[] epochHours) {
+        for (int i = 0; i < epochHours.length; i++) {
+            epochHours[i] = Math.floorDiv(epochHours[i], 24L);
+        }
+        return epochHours;
+    }
 
-        // using "not ... after" allows for the current date to be included in the result set
-        while (!calendar.getTime().after(currentDate)) {
-            tempCode = generateJulianDateCode(calendar);
+    private long[] getEpochHoursForDateCode(String dateCode, long referenceMillis) {
+        // Extract hour component (this is our index into the hour code array)
+        int hour = getArrayIndexContainingHourCode(dateCode.charAt(0));
 
-            // Left trim dateCode parameter to just the last two characters
-            tempCode = tempCode.substring(tempCode.length() - 2);
+        // Only the last two characters hold the day (if not a number, will throw a NumberFormatException)
+        int day = DateCodeTables.parseDigits(dateCode, Math.max(dateCode.length() - 2, 0), dateCode.length());
+
+        long[] values = new long[MAX_CANDIDATE_COUNT];
+        int count = findEpochHours(hour, day, referenceMillis, values, 0);
+        return Arrays.copyOf(values, count);
+    }
 
-            // Add to list if there's a match
-            if (tempCode.equals(code)) {
-                values.add(calendar.getTime());
+    /**
+     * Finds every hour, as hours since January 1, 1970 00:00 GMT, an hour code and day may represent
+     *
+     * Candidates run from the same date one year ago through the reference date, where the
+     * reference date only qualifies once the hour in the code has been reached.
+     *
+     * @param hour index of the hour code
+     * @param day last two digits of the day of year
+     * @param referenceMillis the instant the window ends at
+     * @param destination receives the candidate epoch hours, oldest first
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written
+     */
+    private static int findEpochHours(int hour, int day, long referenceMillis, long[] destination,
+                                      int destinationOffset) {
+        return findCandidates(hour, day, referenceMillis, destination, null, destinationOffset);
+    }
+
+    /**
+     * Finds the candidates of an hour code and day as epoch hours or as epoch days
+     *
+     * @param epochHours receives the candidate epoch hours, or null to write epoch days
+     * @param epochDays receives the candidate epoch days when no hours are written
+     * @see #findEpochHours(int, int, long, long[], int)
+     */
+    private static int findCandidates(int hour, int day, long referenceMillis, long[] epochHours, int[] epochDays,
+                                      int destinationOffset) {
+        int count = 0;
+
+        // The hour code is based on GMT time, so the search window is computed in UTC epoch days
+        long today = EpochDays.fromEpochMillis(referenceMillis);
+        long firstDay = EpochDays.minusYears(today, 1);
+        long lastDay = hour <= EpochDays.hourOfDay(referenceMillis) ? today : today - 1;
+
+        // Every day of year ending in the two digits, in both years the window touches
+        for (long year = EpochDays.year(firstDay); year <= EpochDays.year(lastDay); year++) {
+            long firstDayOfYear = EpochDays.firstDayOfYear(year);
+            int lengthOfYear = EpochDays.lengthOfYear(year);
+
+            for (int dayOfYear = day == 0 ? 100 : day; dayOfYear <= lengthOfYear; dayOfYear += 100) {
+                long epochDay = firstDayOfYear + dayOfYear - 1;
+
+                // Add to list if the match falls within the window
+                if (epochDay >= firstDay && epochDay <= lastDay) {
+                    if (epochHours != null) {
+                        epochHours[destinationOffset + count++] = epochDay * 24 + hour;
+                    } else {
+                        epochDays[destinationOffset + count++] = (int) epochDay;
+                    }
+                }
             }
-            calendar.add(Calendar.DAY_OF_YEAR, 1);
         }
 
-        return values;
+        return count;
     }
 }
@@ -0,0 +1,76 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts the array based bulk encoders of {@link DateCodeBuilder} to byte buffers.
+ */
+final class BulkEncoding {
+    /**
+     * Number of codes staged at a time when the target buffer has no backing array
+     */
+    private static final int STAGING_CODES = 1024;
+
+    private BulkEncoding() {
+    }
+
+    static int encode(DateCodeBuilder builder, boolean epochDays, long[] values, int offset, int length,
+                      ByteBuffer destination) {
+        int codeLength = builder.getCodeLength();
+        int byteCount = length * codeLength;
+        if (destination.remaining() < byteCount) {
+            throw new BufferOverflowException();
+        }
+
+        int position = destination.position();
+        if (destination.hasArray()) {
+            // Heap buffers are written in place
+            encode(builder, epochDays, values, offset, length, destination.array(),
+                    destination.arrayOffset() + position);
+            destination.position(position + byteCount);
+        } else {
+            // Direct buffers are filled from a small staging array
+            byte[] staging = new byte[Math.min(length, STAGING_CODES) * codeLength];
+            for (int done = 0; done < length; done += STAGING_CODES) {
+                int count = Math.min(length - done, STAGING_CODES);
+                encode(builder, epochDays, values, offset + done, count, staging, 0);
+                destination.put(staging, 0, count * codeLength);
+            }
+        }
+
+        return byteCount;
+    }
+
+    private static void encode(DateCodeBuilder builder, boolean epochDays, long[] values, int offset, int length,
+                               byte[] destination, int destinationOffset) {
+        if (epochDays) {
+            builder.encodeEpochDays(values, offset, length, destination, destinationOffset);
+        } else {
+            builder.encodeEpochMillis(values, offset, length, destination, destinationOffset);
+        }
+    }
+}
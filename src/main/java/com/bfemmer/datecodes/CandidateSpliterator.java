@@ -0,0 +1,137 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Lazily produces the dates a date code may represent within a range.
+ *
+ * Every format matches the same pattern: years with a given remainder modulo a period (10
+ * for ocean conveyance, otherwise 1), a few days of each of those years, and an hour of the
+ * day. Candidates are computed one at a time, so stopping after the first one does no work
+ * for the rest of the range.
+ */
+final class CandidateSpliterator extends Spliterators.AbstractSpliterator<ZonedDateTime> {
+    private final long fromMillis;
+    private final long toMillis;
+    private final ZoneId zone;
+    private final int yearPeriod;
+    private final int[] daysOfYear;
+    private final int hour;
+    private final boolean lenient;
+    private final boolean newestFirst;
+    private final long lastYear;
+
+    private long year;
+    private int dayIndex;
+
+    /**
+     * Creates a spliterator over the candidates of one code
+     *
+     * @param fromMillis start of the range (inclusive), in milliseconds since January 1, 1970 00:00 UTC
+     * @param toMillis end of the range (inclusive), in milliseconds since January 1, 1970 00:00 UTC
+     * @param zone time zone the days are counted in
+     * @param yearPeriod number of years between matching years
+     * @param yearResidue remainder of every matching year modulo the period
+     * @param daysOfYear matching days of each matching year, ascending
+     * @param hour hour of the day of every candidate
+     * @param lenient whether days past the end of a year roll into the next year rather than being skipped
+     * @param order order of the candidates
+     */
+    CandidateSpliterator(long fromMillis, long toMillis, ZoneId zone, int yearPeriod, int yearResidue,
+                         int[] daysOfYear, int hour, boolean lenient, CandidateOrder order) {
+        super(Long.MAX_VALUE, ORDERED | DISTINCT | NONNULL | IMMUTABLE);
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.zone = zone;
+        this.yearPeriod = yearPeriod;
+        this.daysOfYear = daysOfYear;
+        this.hour = hour;
+        this.lenient = lenient;
+        this.newestFirst = order == CandidateOrder.NEWEST_FIRST;
+
+        // One year of slack either side covers time zone offsets and days rolling into the next year
+        long firstYear = alignYear(EpochDays.year(EpochDays.fromEpochMillis(fromMillis)) - 1, yearResidue, false);
+        long finalYear = alignYear(EpochDays.year(EpochDays.fromEpochMillis(toMillis)) + 1, yearResidue, true);
+        this.year = newestFirst ? finalYear : firstYear;
+        this.lastYear = newestFirst ? firstYear : finalYear;
+        this.dayIndex = newestFirst ? daysOfYear.length - 1 : 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ZonedDateTime> action) {
+        while (newestFirst ? year >= lastYear : year <= lastYear) {
+            int dayOfYear = daysOfYear[dayIndex];
+            long candidateYear = year;
+            nextDay();
+
+            if (!lenient && dayOfYear > EpochDays.lengthOfYear(candidateYear)) continue;
+
+            long epochDay = EpochDays.firstDayOfYear(candidateYear) + dayOfYear - 1;
+            ZonedDateTime candidate = LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).plusHours(hour);
+            long candidateMillis = candidate.toInstant().toEpochMilli();
+
+            // Candidates only move away from the start of the iteration, so the first one past
+            // the far end of the range ends it
+            if (newestFirst ? candidateMillis < fromMillis : candidateMillis > toMillis) {
+                year = newestFirst ? lastYear - 1 : lastYear + 1;
+                return false;
+            }
+            if (candidateMillis < fromMillis || candidateMillis > toMillis) continue;
+
+            action.accept(candidate);
+            return true;
+        }
+        return false;
+    }
+
+    private void nextDay() {
+        if (newestFirst) {
+            if (--dayIndex < 0) {
+                dayIndex = daysOfYear.length - 1;
+                year -= yearPeriod;
+            }
+        } else {
+            if (++dayIndex == daysOfYear.length) {
+                dayIndex = 0;
+                year += yearPeriod;
+            }
+        }
+    }
+
+    /**
+     * Moves a year to the nearest matching year, downward or upward
+     */
+    private long alignYear(long year, int yearResidue, boolean up) {
+        long offset = Math.floorMod(year - yearResidue, (long) yearPeriod);
+        if (offset == 0) return year;
+        return up ? year - offset + yearPeriod : year - offset;
+    }
+}
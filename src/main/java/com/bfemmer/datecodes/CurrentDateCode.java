@@ -0,0 +1,162 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current date code of a builder for callers that need it at a high rate.
+ *
+ * The code only changes at hour (air conveyance) or local day (ocean and surface conveyance)
+ * boundaries, so it is generated once per period and replaced by a task scheduled for the next
+ * boundary. {@link #getCode()} is a single volatile read. Listeners are told about each rollover
+ * on the scheduler thread.
+ */
+public class CurrentDateCode implements AutoCloseable {
+    /**
+     * Receives the old and new code each time the current code rolls over
+     */
+    @FunctionalInterface
+    public interface RolloverListener {
+        void rollover(String previousCode, String currentCode);
+    }
+
+    private final DateCodeBuilder builder;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final List<RolloverListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Period current;
+    private ScheduledFuture<?> nextRollover;
+    private boolean closed;
+
+    /**
+     * Creates a holder that schedules rollovers on its own daemon thread
+     *
+     * @param builder builder whose current code is held
+     */
+    public CurrentDateCode(DateCodeBuilder builder) {
+        this(builder, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "current-date-code");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Creates a holder that schedules rollovers on a shared scheduler
+     *
+     * @param builder builder whose current code is held
+     * @param scheduler scheduler for the rollover tasks; not shut down by {@link #close()}
+     */
+    public CurrentDateCode(DateCodeBuilder builder, ScheduledExecutorService scheduler) {
+        this(builder, scheduler, false);
+    }
+
+    private CurrentDateCode(DateCodeBuilder builder, ScheduledExecutorService scheduler, boolean ownsScheduler) {
+        this.builder = builder;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        refresh();
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    /**
+     * Gets the date code for the current hour or day
+     *
+     * @return current date code
+     */
+    public String getCode() {
+        return current.code;
+    }
+
+    public void addRolloverListener(RolloverListener listener) {
+        if (listener == null) throw new NullPointerException("listener");
+        listeners.add(listener);
+    }
+
+    public void removeRolloverListener(RolloverListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Regenerates the current code from the clock of the builder and schedules the next rollover
+     *
+     * Called by the scheduler at each boundary; may also be called after the clock has been
+     * changed. Listeners are only told when the code actually changes.
+     */
+    public synchronized void refresh() {
+        if (closed) return;
+
+        long now = builder.getClock().millis();
+        Period previous = current;
+        if (previous == null || now < previous.startMillis || now >= previous.endMillis) {
+            current = new Period(now);
+        }
+
+        // A scheduler may wake early, in which case the same boundary is simply scheduled again
+        if (nextRollover != null) nextRollover.cancel(false);
+        nextRollover = scheduler.schedule(this::refresh, Math.max(current.endMillis - now, 0),
+                TimeUnit.MILLISECONDS);
+
+        if (previous != null && !previous.code.equals(current.code)) {
+            for (RolloverListener listener : listeners) {
+                listener.rollover(previous.code, current.code);
+            }
+        }
+    }
+
+    /**
+     * Stops scheduling rollovers; the last code remains readable
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (nextRollover != null) nextRollover.cancel(false);
+        if (ownsScheduler) scheduler.shutdownNow();
+    }
+
+    /**
+     * Code valid from one hour or day boundary to the next
+     */
+    private final class Period {
+        private final String code;
+        private final long startMillis;
+        private final long endMillis;
+
+        private Period(long now) {
+            ResolutionPeriod period = ResolutionPeriod.of(builder, now);
+            startMillis = period.getStartMillis();
+            endMillis = period.getEndMillis();
+            code = builder.getCodeForEpochMillis(now);
+        }
+    }
+}
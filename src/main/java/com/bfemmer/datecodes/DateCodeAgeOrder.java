@@ -0,0 +1,187 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Orders date codes by the most recent date they may represent, oldest first.
+ *
+ * Every code of the builder is decoded once against a reference instant and given an integer
+ * sort key: hours (air conveyance) or days since the oldest code. After that, comparing codes
+ * and computing keys only reads the code characters. Malformed codes and codes that decode to
+ * no date sort last. Sorting uses a counting sort over the code space.
+ */
+public final class DateCodeAgeOrder implements Comparator<String> {
+    /**
+     * Sort key of codes that are malformed or decode to no date
+     */
+    public static final int UNORDERED = Integer.MAX_VALUE;
+
+    private final DateCodeBuilder builder;
+    private final Instant reference;
+
+    // Sort key of each code index, and its rank among the distinct keys; unordered codes share the last rank
+    private final int[] sortKeys;
+    private final int[] sortRanks;
+    private final int unorderedRank;
+
+    /**
+     * Creates an ordering
+     *
+     * @param builder builder of the codes to order
+     * @param reference instant the codes are decoded against
+     */
+    public DateCodeAgeOrder(DateCodeBuilder builder, Instant reference) {
+        this.builder = builder;
+        this.reference = reference;
+
+        int codeSpaceSize = builder.getCodeSpaceSize();
+        long[] newestKeys = new long[codeSpaceSize];
+        long[] candidates = new long[builder.getMaxCandidateCount()];
+        long oldestKey = Long.MAX_VALUE;
+        for (int i = 0; i < codeSpaceSize; i++) {
+            newestKeys[i] = getNewestKey(builder, i, reference.toEpochMilli(), candidates);
+            if (newestKeys[i] != Long.MIN_VALUE) oldestKey = Math.min(oldestKey, newestKeys[i]);
+        }
+
+        sortKeys = new int[codeSpaceSize];
+        for (int i = 0; i < codeSpaceSize; i++) {
+            sortKeys[i] = newestKeys[i] == Long.MIN_VALUE ? UNORDERED : (int) (newestKeys[i] - oldestKey);
+        }
+
+        // Rank the distinct sort keys, so codes can be counted by key rather than by code
+        long[] keyed = new long[codeSpaceSize];
+        for (int i = 0; i < codeSpaceSize; i++) {
+            keyed[i] = (long) sortKeys[i] << 32 | i;
+        }
+        Arrays.sort(keyed);
+        sortRanks = new int[codeSpaceSize];
+        int rank = -1;
+        int previousKey = 0;
+        for (int i = 0; i < codeSpaceSize; i++) {
+            int sortKey = (int) (keyed[i] >>> 32);
+            if (sortKey == UNORDERED) break;
+            if (rank < 0 || sortKey != previousKey) rank++;
+            previousKey = sortKey;
+            sortRanks[(int) keyed[i]] = rank;
+        }
+        unorderedRank = rank + 1;
+        for (int i = 0; i < codeSpaceSize; i++) {
+            if (sortKeys[i] == UNORDERED) sortRanks[i] = unorderedRank;
+        }
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    public Instant getReference() {
+        return reference;
+    }
+
+    /**
+     * Gets the sort key of a code
+     *
+     * @param dateCode date code
+     * @return hours or days from the oldest code of the builder to the most recent date of the
+     * code, or {@link #UNORDERED}
+     */
+    public int getSortKey(CharSequence dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        return codeIndex < 0 ? UNORDERED : sortKeys[codeIndex];
+    }
+
+    /**
+     * Gets the sort key of a code held as ASCII bytes
+     *
+     * @param source buffer holding the code (read with absolute gets)
+     * @param index index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return sort key, or {@link #UNORDERED}
+     */
+    public int getSortKey(ByteBuffer source, int index, int length) {
+        int codeIndex = builder.getCodeIndex(source, index, length);
+        return codeIndex < 0 ? UNORDERED : sortKeys[codeIndex];
+    }
+
+    @Override
+    public int compare(String dateCode1, String dateCode2) {
+        return Integer.compare(getSortKey(dateCode1), getSortKey(dateCode2));
+    }
+
+    /**
+     * Sorts codes oldest first, keeping the order of codes with the same sort key
+     *
+     * Codes are counted by the rank of their sort key and written back in key order, so the
+     * cost is one pass over the codes plus one over the distinct keys. Malformed codes and codes
+     * that decode to no date are moved to the end, in their original order.
+     *
+     * @param dateCodes codes to sort
+     * @param offset index of the first code
+     * @param length number of codes
+     */
+    public void sort(String[] dateCodes, int offset, int length) {
+        int[] ranks = new int[length];
+        int[] positions = new int[unorderedRank + 1];
+        for (int i = 0; i < length; i++) {
+            int codeIndex = builder.getCodeIndex(dateCodes[offset + i]);
+            ranks[i] = codeIndex < 0 ? unorderedRank : sortRanks[codeIndex];
+            positions[ranks[i]]++;
+        }
+
+        // Turn the counts into the first output position of each rank
+        int position = 0;
+        for (int rank = 0; rank < positions.length; rank++) {
+            int count = positions[rank];
+            positions[rank] = position;
+            position += count;
+        }
+
+        String[] sorted = new String[length];
+        for (int i = 0; i < length; i++) {
+            sorted[positions[ranks[i]]++] = dateCodes[offset + i];
+        }
+        System.arraycopy(sorted, 0, dateCodes, offset, length);
+    }
+
+    /**
+     * Gets the epoch hour (for builders with hour resolution) or epoch day of the most recent
+     * date a code may represent, in the time zone of the builder
+     *
+     * @param candidates scratch array of at least {@link DateCodeBuilder#getMaxCandidateCount()}
+     * @return key, or {@link Long#MIN_VALUE} if the code decodes to no date
+     */
+    static long getNewestKey(DateCodeBuilder builder, int codeIndex, long referenceMillis, long[] candidates) {
+        // Candidates are oldest first, so the last one is the most recent
+        int count = builder.getResolution() == ChronoUnit.HOURS
+                ? builder.getEpochHoursForCodeIndex(codeIndex, referenceMillis, candidates, 0)
+                : builder.getEpochDaysForCodeIndex(codeIndex, referenceMillis, candidates, 0);
+        return count == 0 ? Long.MIN_VALUE : candidates[count - 1];
+    }
+}
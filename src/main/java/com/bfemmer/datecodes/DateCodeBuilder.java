@@ -23,13 +23,1056 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TimeZone;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Generates and decodes DTR date codes.
+ *
+ * Implementations supply a small core: {@link #getCode(Calendar)}, the dense code space
+ * ({@link #getCodeSpaceSize()}, {@link #getCodeIndex(CharSequence)}, {@link #getCodeAt(int)}),
+ * {@link #getEpochDaysForCodeIndex(int, long, long[], int)}, {@link #getMaxCandidateCount()},
+ * {@link #getDecodeStatus(CharSequence)}, {@link #getCandidateSpliterator} and {@link #getClock()}.
+ * Every other method has a default built on these, which builders override only where they have
+ * a faster or more lenient path.
+ */
 public interface DateCodeBuilder {
-    String getCode();
+    default String getCode() {
+        return getCodeForEpochMillis(getClock().millis());
+    }
+
     String getCode(Calendar calendar);
-    List<Date> getCalendarDatesForCode (String dateCode);
-    boolean isValidFormat(String dateCode);
+
+    /**
+     * Gets the date code for a date and time, using the fields as seen in its own time zone
+     *
+     * @param dateTime date and time to encode
+     * @return date code
+     */
+    default String getCode(ZonedDateTime dateTime) {
+        return getCode(GregorianCalendar.from(dateTime));
+    }
+
+    /**
+     * Gets the date code for an instant, as seen in the time zone of this builder
+     *
+     * @param instant instant to encode
+     * @return date code
+     * @see #getZone()
+     */
+    default String getCode(Instant instant) {
+        return getCodeForEpochMillis(instant.toEpochMilli());
+    }
+
+    /**
+     * Gets the date code for the start of a day
+     *
+     * @param date date to encode
+     * @return date code
+     */
+    default String getCode(LocalDate date) {
+        return getCodeForEpochDay(date.toEpochDay());
+    }
+
+    /**
+     * Gets the date code for the start of a day
+     *
+     * @param epochDay days since January 1, 1970
+     * @return date code
+     */
+    default String getCodeForEpochDay(long epochDay) {
+        return getCode(LocalDate.ofEpochDay(epochDay).atStartOfDay(getZone()));
+    }
+
+    /**
+     * Gets the date code for an instant, as seen in the time zone of this builder
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @return date code
+     * @see #getZone()
+     */
+    default String getCodeForEpochMillis(long epochMillis) {
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone(getZone()));
+        calendar.setTimeInMillis(epochMillis);
+        return getCode(calendar);
+    }
+
+    /**
+     * Writes the date code for the calendar into a character array without allocating
+     *
+     * @param calendar date and time to encode
+     * @param destination target array
+     * @param offset index of the first character to write
+     * @return number of characters written
+     */
+    default int writeCode(Calendar calendar, char[] destination, int offset) {
+        return DateCodeTables.write(getCode(calendar), destination, offset);
+    }
+
+    /**
+     * Appends the date code for the calendar to a string builder
+     *
+     * @param calendar date and time to encode
+     * @param destination target builder
+     * @return number of characters written
+     */
+    default int writeCode(Calendar calendar, StringBuilder destination) {
+        return DateCodeTables.write(getCode(calendar), destination);
+    }
+
+    /**
+     * Writes the ASCII date code for the calendar at the current position of a buffer
+     *
+     * @param calendar date and time to encode
+     * @param destination target buffer (position is advanced)
+     * @return number of bytes written
+     */
+    default int writeCode(Calendar calendar, ByteBuffer destination) {
+        return DateCodeTables.write(getCode(calendar), destination);
+    }
+
+    /**
+     * Gets the date code for an instant in a time zone other than the one of this builder
+     *
+     * Air conveyance codes are always in GMT, so the zone does not change them.
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param zone time zone of the local date (and hour) encoded
+     * @return date code
+     */
+    default String getCodeForEpochMillis(long epochMillis, ZoneId zone) {
+        return getCodeForEpochDay(ZoneOffsets.of(zone).toEpochDay(epochMillis));
+    }
+
+    /**
+     * Writes the ASCII date code for an instant into a byte array
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param destination target array
+     * @param offset index of the first byte to write
+     * @return number of bytes written
+     */
+    default int writeCodeForEpochMillis(long epochMillis, byte[] destination, int offset) {
+        return DateCodeTables.write(getCodeForEpochMillis(epochMillis), destination, offset);
+    }
+
+    /**
+     * Writes the ASCII date code for an instant at the current position of a buffer
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param destination target buffer (position is advanced)
+     * @return number of bytes written
+     */
+    default int writeCodeForEpochMillis(long epochMillis, ByteBuffer destination) {
+        return DateCodeTables.write(getCodeForEpochMillis(epochMillis), destination);
+    }
+
+    /**
+     * Gets the fixed number of ASCII characters in every code produced by this builder
+     *
+     * @return 3 for air and surface conveyance, 4 for ocean conveyance
+     */
+    default int getCodeLength() {
+        return getCodeAt(0).length();
+    }
+
+    /**
+     * Encodes a run of instants into packed, fixed width ASCII codes
+     *
+     * Instants are seen in the time zone of this builder. Code {@code i} is written at
+     * {@code destinationOffset + i * getCodeLength()}.
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param offset index of the first instant to encode
+     * @param length number of instants to encode
+     * @param destination target array
+     * @param destinationOffset index of the first byte to write
+     * @return number of bytes written
+     */
+    default int encodeEpochMillis(long[] epochMillis, int offset, int length, byte[] destination,
+                                  int destinationOffset) {
+        int codeLength = getCodeLength();
+        for (int i = 0; i < length; i++) {
+            writeCodeForEpochMillis(epochMillis[offset + i], destination, destinationOffset + i * codeLength);
+        }
+        return length * codeLength;
+    }
+
+    /**
+     * Encodes a run of days into packed, fixed width ASCII codes for the start of each day
+     *
+     * Code {@code i} is written at {@code destinationOffset + i * getCodeLength()}.
+     *
+     * @param epochDays days since January 1, 1970
+     * @param offset index of the first day to encode
+     * @param length number of days to encode
+     * @param destination target array
+     * @param destinationOffset index of the first byte to write
+     * @return number of bytes written
+     */
+    default int encodeEpochDays(long[] epochDays, int offset, int length, byte[] destination,
+                                int destinationOffset) {
+        int codeLength = getCodeLength();
+        for (int i = 0; i < length; i++) {
+            DateCodeTables.write(getCodeForEpochDay(epochDays[offset + i]), destination,
+                    destinationOffset + i * codeLength);
+        }
+        return length * codeLength;
+    }
+
+    /**
+     * Encodes a run of instants, each in its own time zone, into packed, fixed width ASCII codes
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param zones time zone of each instant, at the same index
+     * @param offset index of the first instant to encode
+     * @param length number of instants to encode
+     * @param destination target array
+     * @param destinationOffset index of the first byte to write
+     * @return number of bytes written
+     * @see #getCodeForEpochMillis(long, ZoneId)
+     */
+    default int encodeEpochMillis(long[] epochMillis, ZoneId[] zones, int offset, int length, byte[] destination,
+                                  int destinationOffset) {
+        int codeLength = getCodeLength();
+        for (int i = 0; i < length; i++) {
+            DateCodeTables.write(getCodeForEpochMillis(epochMillis[offset + i], zones[offset + i]), destination,
+                    destinationOffset + i * codeLength);
+        }
+        return length * codeLength;
+    }
+
+    /**
+     * Encodes a run of instants into packed, fixed width ASCII codes at the current position of a buffer
+     *
+     * @param epochMillis milliseconds since January 1, 1970 00:00 UTC
+     * @param offset index of the first instant to encode
+     * @param length number of instants to encode
+     * @param destination target buffer (position is advanced)
+     * @return number of bytes written
+     * @throws java.nio.BufferOverflowException if the buffer cannot hold every code
+     */
+    default int encodeEpochMillis(long[] epochMillis, int offset, int length, ByteBuffer destination) {
+        return BulkEncoding.encode(this, false, epochMillis, offset, length, destination);
+    }
+
+    /**
+     * Encodes a run of days into packed, fixed width ASCII codes at the current position of a buffer
+     *
+     * @param epochDays days since January 1, 1970
+     * @param offset index of the first day to encode
+     * @param length number of days to encode
+     * @param destination target buffer (position is advanced)
+     * @return number of bytes written
+     * @throws java.nio.BufferOverflowException if the buffer cannot hold every code
+     */
+    default int encodeEpochDays(long[] epochDays, int offset, int length, ByteBuffer destination) {
+        return BulkEncoding.encode(this, true, epochDays, offset, length, destination);
+    }
+
+    default List<Date> getCalendarDatesForCode (String dateCode) {
+        return getCalendarDatesForCode(dateCode, getClock().instant());
+    }
+
+    /**
+     * Gets every date the date code may represent relative to a reference instant, oldest first
+     *
+     * @param dateCode date code to decode
+     * @param reference instant the code is resolved against (such as the time it was scanned)
+     * @return candidate dates
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default List<Date> getCalendarDatesForCode(String dateCode, Instant reference) {
+        List<ZonedDateTime> dateTimes = getDateTimesForCode(dateCode, reference);
+        List<Date> values = new ArrayList<>(dateTimes.size());
+        for (ZonedDateTime dateTime : dateTimes) {
+            values.add(Date.from(dateTime.toInstant()));
+        }
+        return values;
+    }
+
+    /**
+     * Gets every date and time the date code may represent, oldest first
+     *
+     * @param dateCode date code to decode
+     * @return candidate dates and times in the time zone of this builder
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default List<ZonedDateTime> getDateTimesForCode(String dateCode) {
+        return getDateTimesForCode(dateCode, getClock().instant());
+    }
+
+    /**
+     * Gets every date and time the date code may represent relative to a reference instant,
+     * oldest first
+     *
+     * The default resolves the code against the reference day and gives the start of each
+     * candidate day, so builders with hour resolution override it.
+     *
+     * @param dateCode date code to decode
+     * @param reference instant the code is resolved against (such as the time it was scanned)
+     * @return candidate dates and times in the time zone of this builder
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default List<ZonedDateTime> getDateTimesForCode(String dateCode, Instant reference) {
+        long[] epochDays = getEpochDaysForCode(dateCode,
+                EpochDays.fromEpochMillis(reference.toEpochMilli(), getZone()));
+        List<ZonedDateTime> values = new ArrayList<>(epochDays.length);
+        for (long epochDay : epochDays) {
+            values.add(LocalDate.ofEpochDay(epochDay).atStartOfDay(getZone()));
+        }
+        return values;
+    }
+
+    /**
+     * Gets every date the date code may represent, oldest first
+     *
+     * @param dateCode date code to decode
+     * @return candidate dates in the time zone of this builder
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default List<LocalDate> getLocalDatesForCode(String dateCode) {
+        long[] epochDays = getEpochDaysForCode(dateCode);
+        List<LocalDate> values = new ArrayList<>(epochDays.length);
+        for (long epochDay : epochDays) {
+            values.add(LocalDate.ofEpochDay(epochDay));
+        }
+        return values;
+    }
+
+    /**
+     * Gets every epoch day the date code may represent, oldest first
+     *
+     * The default resolves the code against the current day, so builders with hour resolution
+     * override it to leave out the hours still to come.
+     *
+     * @param dateCode date code to decode
+     * @return candidate days since January 1, 1970 in the time zone of this builder
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default long[] getEpochDaysForCode(String dateCode) {
+        return getEpochDaysForCode(dateCode, EpochDays.fromEpochMillis(getClock().millis(), getZone()));
+    }
+
+    /**
+     * Gets every epoch day the date code may represent relative to a reference day, oldest first
+     *
+     * Codes are resolved against the end of the reference day, so every hour of that day
+     * qualifies.
+     *
+     * @param dateCode date code to decode
+     * @param referenceEpochDay day the code is resolved against, in the time zone of this builder
+     * @return candidate days since January 1, 1970 in the time zone of this builder
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default long[] getEpochDaysForCode(String dateCode, long referenceEpochDay) {
+        long[] epochDays = new long[getMaxCandidateCount()];
+        return Arrays.copyOf(epochDays, getEpochDaysForCodeIndex(IndexDecoding.requireCodeIndex(this, dateCode),
+                IndexDecoding.endOfDay(getZone(), referenceEpochDay), epochDays, 0));
+    }
+
+    /**
+     * Checks whether a date code is well formed, without allocating or throwing
+     *
+     * This is stricter than the decoders. The ocean and surface String and ByteBuffer decoders
+     * roll a day of year outside 1 to 366 into the adjacent year instead of throwing, but such
+     * codes are not well formed.
+     *
+     * @param dateCode date code to check
+     * @return true if the code has a dense index, so that {@link #getDecodeStatus(CharSequence)}
+     *         is {@link DecodeStatus#OK}
+     */
+    default boolean isValidFormat(String dateCode) {
+        return getCodeIndex(dateCode) >= 0;
+    }
+
+    /**
+     * Checks whether an ASCII date code held in a buffer is well formed, without changing its position
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return true if the code has a dense index
+     * @see #isValidFormat(String)
+     */
+    default boolean isValidFormat(ByteBuffer source, int index, int length) {
+        return getCodeIndex(source, index, length) >= 0;
+    }
+
+    /**
+     * Checks whether an ASCII date code held in a byte array is well formed
+     *
+     * @param source array containing the code
+     * @param offset index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return true if the code has a dense index
+     * @see #isValidFormat(String)
+     */
+    default boolean isValidFormat(byte[] source, int offset, int length) {
+        return getCodeIndex(source, offset, length) >= 0;
+    }
+
+    /**
+     * Classifies a date code without throwing
+     *
+     * Unlike the decoders, which roll out of range days into the adjacent year, a day of year
+     * outside 1 to 366 is reported as {@link DecodeStatus#DAY_OUT_OF_RANGE}.
+     *
+     * @param dateCode date code to check
+     * @return {@link DecodeStatus#OK}, or the first problem found
+     */
+    DecodeStatus getDecodeStatus(CharSequence dateCode);
+
+    /**
+     * Classifies an ASCII date code held in a buffer without throwing or changing its position
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return {@link DecodeStatus#OK}, or the first problem found
+     */
+    default DecodeStatus getDecodeStatus(ByteBuffer source, int index, int length) {
+        if (length != getCodeLength()) return DecodeStatus.BAD_LENGTH;
+        return getDecodeStatus(IndexDecoding.toCharSequence(source, index, length));
+    }
+
+    /**
+     * Decodes a date code into its status and candidate epoch days without throwing
+     *
+     * @param dateCode date code to decode
+     * @return result; results of malformed codes are shared and hold no candidates
+     */
+    default DecodeResult decode(CharSequence dateCode) {
+        // Well formed codes take the fast path, and only bad ones are classified
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) return DecodeResult.failure(getDecodeStatus(dateCode));
+        return DecodeResult.ok(this, codeIndex, getClock().millis());
+    }
+
+    /**
+     * Decodes an ASCII date code held in a buffer into its status and candidate epoch days
+     * without throwing or changing the position of the buffer
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return result; results of malformed codes are shared and hold no candidates
+     */
+    default DecodeResult decode(ByteBuffer source, int index, int length) {
+        int codeIndex = getCodeIndex(source, index, length);
+        if (codeIndex < 0) return DecodeResult.failure(getDecodeStatus(source, index, length));
+        return DecodeResult.ok(this, codeIndex, getClock().millis());
+    }
+
+    /**
+     * Decodes a run of date codes without throwing
+     *
+     * @param dateCodes codes to decode
+     * @param offset index of the first code to decode
+     * @param length number of codes to decode
+     * @param destination receives the result of code {@code i} at {@code destinationOffset + i}
+     * @param destinationOffset index of the first result to write
+     * @return number of codes with each status
+     */
+    default DecodeStatusCounts decode(CharSequence[] dateCodes, int offset, int length, DecodeResult[] destination,
+                                      int destinationOffset) {
+        DecodeStatusCounts counts = new DecodeStatusCounts();
+        long referenceEpochMillis = getClock().millis();
+        for (int i = 0; i < length; i++) {
+            CharSequence dateCode = dateCodes[offset + i];
+            int codeIndex = getCodeIndex(dateCode);
+            DecodeResult result = codeIndex < 0 ? DecodeResult.failure(getDecodeStatus(dateCode))
+                    : DecodeResult.ok(this, codeIndex, referenceEpochMillis);
+            counts.increment(result.getStatus());
+            destination[destinationOffset + i] = result;
+        }
+        return counts;
+    }
+
+    /**
+     * Decodes fixed width ASCII date codes packed back to back in a buffer without throwing
+     *
+     * @param source buffer containing the codes (position is unchanged)
+     * @param index absolute index of the first byte of the first code
+     * @param count number of codes, each {@link #getCodeLength()} bytes long
+     * @param destination receives the result of code {@code i} at {@code destinationOffset + i}
+     * @param destinationOffset index of the first result to write
+     * @return number of codes with each status
+     * @throws IndexOutOfBoundsException if the codes run past the limit of the buffer
+     */
+    default DecodeStatusCounts decode(ByteBuffer source, int index, int count, DecodeResult[] destination,
+                                      int destinationOffset) {
+        int codeLength = getCodeLength();
+        if (index < 0 || count < 0 || index + (long) count * codeLength > source.limit()) {
+            throw new IndexOutOfBoundsException("codes exceed buffer limit");
+        }
+
+        DecodeStatusCounts counts = new DecodeStatusCounts();
+        long referenceEpochMillis = getClock().millis();
+        for (int i = 0; i < count; i++) {
+            int codeIndex = getCodeIndex(source, index + i * codeLength, codeLength);
+            DecodeResult result = codeIndex < 0
+                    ? DecodeResult.failure(getDecodeStatus(source, index + i * codeLength, codeLength))
+                    : DecodeResult.ok(this, codeIndex, referenceEpochMillis);
+            counts.increment(result.getStatus());
+            destination[destinationOffset + i] = result;
+        }
+        return counts;
+    }
+
+    /**
+     * Validates a run of date codes
+     *
+     * @param dateCodes codes to check
+     * @param offset index of the first code to check
+     * @param length number of codes to check
+     * @return set with bit {@code i} set if {@code dateCodes[offset + i]} is malformed or null
+     */
+    default BitSet getInvalidCodes(String[] dateCodes, int offset, int length) {
+        BitSet invalidCodes = new BitSet(length);
+        for (int i = 0; i < length; i++) {
+            String dateCode = dateCodes[offset + i];
+            if (dateCode == null || !isValidFormat(dateCode)) invalidCodes.set(i);
+        }
+        return invalidCodes;
+    }
+
+    /**
+     * Validates fixed width ASCII date codes packed back to back in a buffer, such as the
+     * output of {@link #encodeEpochMillis(long[], int, int, ByteBuffer)}
+     *
+     * @param source buffer containing the codes (position is unchanged)
+     * @param index absolute index of the first byte of the first code
+     * @param count number of codes, each {@link #getCodeLength()} bytes long
+     * @return set with bit {@code i} set if code {@code i} is malformed
+     * @throws IndexOutOfBoundsException if the codes run past the limit of the buffer
+     */
+    default BitSet getInvalidCodes(ByteBuffer source, int index, int count) {
+        int codeLength = getCodeLength();
+        if (index < 0 || count < 0 || index + (long) count * codeLength > source.limit()) {
+            throw new IndexOutOfBoundsException("codes exceed buffer limit");
+        }
+
+        BitSet invalidCodes = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            if (getCodeIndex(source, index + i * codeLength, codeLength) < 0) invalidCodes.set(i);
+        }
+        return invalidCodes;
+    }
+
+    /**
+     * Decodes an ASCII date code held in a buffer into candidate epoch days, oldest first
+     *
+     * The code is read with absolute gets, so the position of the buffer is unchanged and
+     * no intermediate {@code String} is created.
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default int getEpochDaysForCode(ByteBuffer source, int index, int length, long[] destination,
+                                    int destinationOffset) {
+        return getEpochDaysForCode(source, index, length, EpochDays.fromEpochMillis(getClock().millis(), getZone()),
+                destination, destinationOffset);
+    }
+
+    /**
+     * Decodes an ASCII date code held in a byte array into candidate epoch days, oldest first
+     *
+     * @param source array containing the code
+     * @param offset index of the first byte of the code
+     * @param length number of bytes in the code
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     */
+    default int getEpochDaysForCode(byte[] source, int offset, int length, long[] destination,
+                                    int destinationOffset) {
+        int codeIndex = getCodeIndex(source, offset, length);
+        if (codeIndex < 0) {
+            // Only malformed codes take the buffer path, for its lenient days and its exceptions
+            return getEpochDaysForCode(ByteBuffer.wrap(source), offset, length, destination, destinationOffset);
+        }
+        return getEpochDaysForCodeIndex(codeIndex, getClock().millis(), destination, destinationOffset);
+    }
+
+    /**
+     * Decodes an ASCII date code held in a buffer into every date and time it may represent,
+     * oldest first, without changing the position of the buffer
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return candidate dates and times
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default List<ZonedDateTime> getDateTimesForCode(ByteBuffer source, int index, int length) {
+        int codeIndex = getCodeIndex(source, index, length);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code");
+
+        // The code table holds the same code as a shared String, so none is created here
+        return getDateTimesForCode(getCodeAt(codeIndex));
+    }
+
+    /**
+     * Decodes an ASCII date code held in a byte array into every date and time it may represent,
+     * oldest first
+     *
+     * @param source array containing the code
+     * @param offset index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return candidate dates and times
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default List<ZonedDateTime> getDateTimesForCode(byte[] source, int offset, int length) {
+        int codeIndex = getCodeIndex(source, offset, length);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code");
+        return getDateTimesForCode(getCodeAt(codeIndex));
+    }
+
+    /**
+     * Decodes an ASCII date code held in a buffer into candidate epoch days relative to a
+     * reference day, oldest first
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @param referenceEpochDay day the code is resolved against, in the time zone of this builder
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws NumberFormatException if the numeric part of the code is not a number
+     * @throws IllegalArgumentException if the code has the wrong length
+     * @see #getEpochDaysForCode(String, long)
+     */
+    default int getEpochDaysForCode(ByteBuffer source, int index, int length, long referenceEpochDay,
+                                    long[] destination, int destinationOffset) {
+        return getEpochDaysForCodeIndex(IndexDecoding.requireCodeIndex(this, source, index, length),
+                IndexDecoding.endOfDay(getZone(), referenceEpochDay), destination, destinationOffset);
+    }
+
+    /**
+     * Decodes the date code with a dense index into candidate epoch days relative to a
+     * reference instant, oldest first
+     *
+     * Nothing is allocated, so this suits decoding large batches against one reference.
+     *
+     * @param codeIndex index from {@code 0} to {@code getCodeSpaceSize() - 1}
+     * @param referenceEpochMillis instant the code is resolved against, in milliseconds since
+     *                             January 1, 1970 00:00 UTC
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @see #getCodeIndex(CharSequence)
+     */
+    int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                 int destinationOffset);
+
+    /**
+     * Decodes the date code with a dense index into candidate epoch days relative to a
+     * reference instant, oldest first, as ints
+     *
+     * @param codeIndex index from {@code 0} to {@code getCodeSpaceSize() - 1}
+     * @param referenceEpochMillis instant the code is resolved against, in milliseconds since
+     *                             January 1, 1970 00:00 UTC
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @see #getEpochDaysForCodeIndex(int, long, long[], int)
+     */
+    default int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, int[] destination,
+                                         int destinationOffset) {
+        long[] epochDays = new long[getMaxCandidateCount()];
+        int count = getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, epochDays, 0);
+        for (int i = 0; i < count; i++) {
+            destination[destinationOffset + i] = (int) epochDays[i];
+        }
+        return count;
+    }
+
+    /**
+     * Decodes the date code with a dense index into candidate hours relative to a reference
+     * instant, oldest first
+     *
+     * Builders without hour resolution give the first hour of each candidate day.
+     *
+     * @param codeIndex index from {@code 0} to {@code getCodeSpaceSize() - 1}
+     * @param referenceEpochMillis instant the code is resolved against, in milliseconds since
+     *                             January 1, 1970 00:00 UTC
+     * @param destination receives the candidate hours since January 1, 1970 00:00 in the time
+     *                    zone of this builder
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     */
+    default int getEpochHoursForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                          int destinationOffset) {
+        int count = getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, destination, destinationOffset);
+        for (int i = destinationOffset; i < destinationOffset + count; i++) {
+            destination[i] *= 24;
+        }
+        return count;
+    }
+
+    /**
+     * Decodes a date code into candidate epoch days relative to the current time, oldest first
+     *
+     * @param dateCode date code to decode
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default int getEpochDaysForCode(CharSequence dateCode, long[] destination, int destinationOffset) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        return getEpochDaysForCodeIndex(codeIndex, getClock().millis(), destination, destinationOffset);
+    }
+
+    /**
+     * Decodes a date code into candidate epoch days relative to the current time, oldest first
+     *
+     * @param dateCode date code to decode
+     * @param destination receives the candidate days since January 1, 1970
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default int getEpochDaysForCode(CharSequence dateCode, int[] destination, int destinationOffset) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        return getEpochDaysForCodeIndex(codeIndex, getClock().millis(), destination, destinationOffset);
+    }
+
+    /**
+     * Decodes a date code into candidate hours relative to the current time, oldest first
+     *
+     * @param dateCode date code to decode
+     * @param destination receives the candidate hours since January 1, 1970 00:00 in the time
+     *                    zone of this builder
+     * @param destinationOffset index of the first candidate to write
+     * @return number of candidates written, at most {@link #getMaxCandidateCount()}
+     * @throws IllegalArgumentException if the code is not well formed
+     * @see #getEpochHoursForCodeIndex(int, long, long[], int)
+     */
+    default int getEpochHoursForCode(CharSequence dateCode, long[] destination, int destinationOffset) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        return getEpochHoursForCodeIndex(codeIndex, getClock().millis(), destination, destinationOffset);
+    }
+
+    /**
+     * Decodes a date code into a stream of candidate epoch days relative to the current time,
+     * oldest first
+     *
+     * @param dateCode date code to decode
+     * @return candidate days since January 1, 1970
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default IntStream getEpochDayStream(CharSequence dateCode) {
+        int[] epochDays = new int[getMaxCandidateCount()];
+        int count = getEpochDaysForCode(dateCode, epochDays, 0);
+        return Arrays.stream(epochDays, 0, count);
+    }
+
+    /**
+     * Decodes a sequence of date codes into one stream of candidate epoch days relative to the
+     * current time, oldest first within each code. Codes are decoded lazily into a single
+     * reused buffer, so the stream does not allocate per code.
+     *
+     * @param dateCodes date codes to decode
+     * @return candidate days since January 1, 1970
+     * @throws IllegalArgumentException if a code is not well formed, when the stream reaches it
+     */
+    default IntStream getEpochDayStream(Iterator<? extends CharSequence> dateCodes) {
+        long referenceEpochMillis = getClock().millis();
+        int[] epochDays = new int[getMaxCandidateCount()];
+        Spliterator.OfInt spliterator = new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int position;
+            private int count;
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                while (position == count) {
+                    if (!dateCodes.hasNext()) return false;
+                    CharSequence dateCode = dateCodes.next();
+                    int codeIndex = getCodeIndex(dateCode);
+                    if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+                    count = getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, epochDays, 0);
+                    position = 0;
+                }
+                action.accept(epochDays[position++]);
+                return true;
+            }
+        };
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    /**
+     * Lazily gets every date and time the date code may represent within a range
+     *
+     * Unlike the list decoders, candidates are not limited to a window before the current
+     * date. Each candidate is computed only when it is requested.
+     *
+     * @param dateCode date code to decode
+     * @param from start of the range (inclusive)
+     * @param to end of the range (inclusive)
+     * @param order order of the candidates
+     * @return spliterator over the candidates
+     * @throws IllegalArgumentException if the code is not well formed or the range is reversed
+     */
+    Spliterator<ZonedDateTime> getCandidateSpliterator(String dateCode, Instant from, Instant to,
+                                                       CandidateOrder order);
+
+    /**
+     * Lazily gets every date and time the date code may represent within a range
+     *
+     * @param dateCode date code to decode
+     * @param from start of the range (inclusive)
+     * @param to end of the range (inclusive)
+     * @param order order of the candidates
+     * @return sequential stream of the candidates
+     * @throws IllegalArgumentException if the code is not well formed or the range is reversed
+     * @see #getCandidateSpliterator(String, Instant, Instant, CandidateOrder)
+     */
+    default Stream<ZonedDateTime> getCandidates(String dateCode, Instant from, Instant to, CandidateOrder order) {
+        return StreamSupport.stream(getCandidateSpliterator(dateCode, from, to, order), false);
+    }
+
+    /**
+     * Lazily gets every date and time the date code may represent within a range
+     *
+     * @param dateCode date code to decode
+     * @param from start of the range (inclusive)
+     * @param to end of the range (inclusive)
+     * @param order order of the candidates
+     * @return iterator over the candidates
+     * @throws IllegalArgumentException if the code is not well formed or the range is reversed
+     * @see #getCandidateSpliterator(String, Instant, Instant, CandidateOrder)
+     */
+    default Iterator<ZonedDateTime> getCandidateIterator(String dateCode, Instant from, Instant to,
+                                                         CandidateOrder order) {
+        return Spliterators.iterator(getCandidateSpliterator(dateCode, from, to, order));
+    }
+
+    /**
+     * Gets the most recent date and time the date code may represent, at or before a reference instant
+     *
+     * @param dateCode date code to decode
+     * @param reference latest instant the code may represent
+     * @return most recent candidate, computed without computing any other
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    default Optional<ZonedDateTime> getMostRecentCandidate(String dateCode, Instant reference) {
+        // Every code repeats at least once every ten years
+        Instant from = reference.minus(11 * 366, ChronoUnit.DAYS);
+        return getCandidates(dateCode, from, reference, CandidateOrder.NEWEST_FIRST).findFirst();
+    }
+
+    /**
+     * Gets every code that some instant within a range encodes to
+     *
+     * This is the inverse of decoding: a stored code can only represent a date in the range
+     * if its bit is set, so the set can be pushed down to a query as an {@code IN} list.
+     *
+     * @param from start of the range (inclusive)
+     * @param to end of the range (inclusive)
+     * @return set with bit {@code i} set for the code with dense index {@code i}
+     * @throws IllegalArgumentException if the range is reversed
+     */
+    default BitSet getCodeIndexesInRange(Instant from, Instant to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("range ends before it starts");
+
+        int codeSpaceSize = getCodeSpaceSize();
+        BitSet codeIndexes = new BitSet(codeSpaceSize);
+        int found = 0;
+
+        // Walk the range one code at a time, stopping early once every code has been seen
+        if (getResolution() == ChronoUnit.HOURS) {
+            long lastHour = Math.floorDiv(to.toEpochMilli(), EpochDays.MILLIS_PER_HOUR);
+            for (long hour = Math.floorDiv(from.toEpochMilli(), EpochDays.MILLIS_PER_HOUR);
+                 hour <= lastHour && found < codeSpaceSize; hour++) {
+                int codeIndex = getCodeIndex(getCodeForEpochMillis(hour * EpochDays.MILLIS_PER_HOUR));
+                if (!codeIndexes.get(codeIndex)) {
+                    codeIndexes.set(codeIndex);
+                    found++;
+                }
+            }
+        } else {
+            // Some codes (such as day 366 of a year ending in 1) never occur, but the calendar
+            // repeats every 400 years, so no longer span can add a code
+            long firstDay = EpochDays.fromEpochMillis(from.toEpochMilli(), getZone());
+            long lastDay = Math.min(EpochDays.fromEpochMillis(to.toEpochMilli(), getZone()),
+                    firstDay + EpochDays.DAYS_PER_ERA - 1);
+            for (long day = firstDay; day <= lastDay && found < codeSpaceSize; day++) {
+                int codeIndex = getCodeIndex(getCodeForEpochDay(day));
+                if (!codeIndexes.get(codeIndex)) {
+                    codeIndexes.set(codeIndex);
+                    found++;
+                }
+            }
+        }
+        return codeIndexes;
+    }
+
+    /**
+     * Gets every code that some instant within a range encodes to, in ascending order
+     *
+     * @param from start of the range (inclusive)
+     * @param to end of the range (inclusive)
+     * @return sorted codes, suitable for an SQL {@code IN} list
+     * @throws IllegalArgumentException if the range is reversed
+     * @see #getCodeIndexesInRange(Instant, Instant)
+     */
+    default List<String> getCodesInRange(Instant from, Instant to) {
+        BitSet codeIndexes = getCodeIndexesInRange(from, to);
+        List<String> codes = new ArrayList<>(codeIndexes.cardinality());
+        for (int i = codeIndexes.nextSetBit(0); i >= 0; i = codeIndexes.nextSetBit(i + 1)) {
+            codes.add(getCodeAt(i));
+        }
+
+        // Air codes are indexed by day first, which is not the order of the strings
+        Collections.sort(codes);
+        return codes;
+    }
+
+    /**
+     * Gets an ordering of codes by the most recent date they may represent, oldest first
+     *
+     * @param reference instant the codes are decoded against
+     * @return ordering with a sort key for every code
+     */
+    default DateCodeAgeOrder getAgeOrder(Instant reference) {
+        return new DateCodeAgeOrder(this, reference);
+    }
+
+    /**
+     * Gets the largest number of candidates a single code can decode to
+     *
+     * @return 5 for air conveyance, otherwise 1
+     */
+    int getMaxCandidateCount();
+
+    /**
+     * Gets the number of distinct well formed codes
+     *
+     * Well formed codes map one to one onto the dense range {@code 0} to
+     * {@code getCodeSpaceSize() - 1}, so per code data can live in plain arrays.
+     *
+     * @return 2400 for air conveyance, 3660 for ocean conveyance, 366 for surface conveyance
+     */
+    int getCodeSpaceSize();
+
+    /**
+     * Gets the dense index of a date code
+     *
+     * @param dateCode date code
+     * @return index from {@code 0} to {@code getCodeSpaceSize() - 1}, or -1 if the code is not
+     *         well formed
+     */
+    int getCodeIndex(CharSequence dateCode);
+
+    /**
+     * Gets the dense index of an ASCII date code held in a buffer, without changing its position
+     *
+     * @param source buffer containing the code
+     * @param index absolute index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return index from {@code 0} to {@code getCodeSpaceSize() - 1}, or -1 if the code is not
+     *         well formed
+     */
+    default int getCodeIndex(ByteBuffer source, int index, int length) {
+        if (length != getCodeLength()) return -1;
+        return getCodeIndex(IndexDecoding.toCharSequence(source, index, length));
+    }
+
+    /**
+     * Gets the dense index of an ASCII date code held in a byte array
+     *
+     * The built in builders read the array directly; the default copies the code into characters.
+     *
+     * @param source array containing the code
+     * @param offset index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return index from {@code 0} to {@code getCodeSpaceSize() - 1}, or -1 if the code is not
+     *         well formed
+     */
+    default int getCodeIndex(byte[] source, int offset, int length) {
+        if (length != getCodeLength()) return -1;
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (source[offset + i] & 0xff);
+        }
+        return getCodeIndex(CharBuffer.wrap(chars));
+    }
+
+    /**
+     * Gets the date code with a dense index
+     *
+     * @param codeIndex index from {@code 0} to {@code getCodeSpaceSize() - 1}
+     * @return date code
+     */
+    String getCodeAt(int codeIndex);
+
+    /**
+     * Gets the smallest unit of time a code distinguishes
+     *
+     * @return {@link ChronoUnit#HOURS} for air conveyance, otherwise {@link ChronoUnit#DAYS}
+     */
+    default ChronoUnit getResolution() {
+        return ChronoUnit.DAYS;
+    }
+
+    /**
+     * Gets the clock the current time is read from when no reference is supplied
+     *
+     * @return clock given at construction, the system clock by default
+     */
+    Clock getClock();
+
+    /**
+     * Gets the time zone codes are generated and resolved in when no zone is supplied
+     *
+     * @return GMT for air conveyance, otherwise the time zone of the clock
+     */
+    default ZoneId getZone() {
+        return getClock().getZone();
+    }
 }
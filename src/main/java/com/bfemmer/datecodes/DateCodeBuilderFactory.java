@@ -23,18 +23,108 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Created by bfemmer on 6/7/2016.
+ *
+ * Builders are looked up by {@link ConveyanceType} or by name, ignoring case. Additional
+ * conveyance types can be registered at runtime; lookups never lock.
  */
 public class DateCodeBuilderFactory {
+    /**
+     * Built in builders indexed by {@link ConveyanceType#ordinal()}
+     */
+    private static final DateCodeBuilder[] CONVEYANCE_BUILDERS = {
+            AirDateCodeBuilder.getInstance(),
+            OceanDateCodeBuilder.getInstance(),
+            SurfaceDateCodeBuilder.getInstance()};
+
+    /**
+     * Every registered builder under both its registered and its lower case name
+     */
+    private static final ConcurrentMap<String, DateCodeBuilder> BUILDERS = new ConcurrentHashMap<>();
+
+    static {
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            registerDateCodeBuilder(conveyanceType.getName(), CONVEYANCE_BUILDERS[conveyanceType.ordinal()]);
+        }
+    }
+
+    public static DateCodeBuilder getDateCodeBuilder(ConveyanceType conveyanceType) {
+        return CONVEYANCE_BUILDERS[conveyanceType.ordinal()];
+    }
+
+    /**
+     * Gets the builder registered under a name
+     *
+     * @param conveyanceType name of the conveyance type, in any case
+     * @return registered builder
+     * @throws IllegalArgumentException if no builder is registered under the name
+     */
     public static DateCodeBuilder getDateCodeBuilder(String conveyanceType) {
-        if ( conveyanceType.equals("Air") )
-            return AirDateCodeBuilder.getInstance();
-        else if ( conveyanceType.equals("Ocean") )
-            return OceanDateCodeBuilder.getInstance();
-        else if ( conveyanceType.equals("Surface") )
-            return SurfaceDateCodeBuilder.getInstance();
-
-        return null;
+        // Exact names are found without creating a lower case copy
+        DateCodeBuilder builder = BUILDERS.get(conveyanceType);
+        if (builder == null) {
+            builder = BUILDERS.get(conveyanceType.toLowerCase(Locale.ROOT));
+        }
+
+        if (builder == null) throw new IllegalArgumentException("unknown conveyance type: " + conveyanceType);
+        return builder;
+    }
+
+    /**
+     * Registers a builder for an additional conveyance type
+     *
+     * @param conveyanceType name of the conveyance type, matched ignoring case
+     * @param builder builder to register; must be safe for use by multiple threads
+     * @throws IllegalArgumentException if a builder is already registered under the name
+     */
+    public static void registerDateCodeBuilder(String conveyanceType, DateCodeBuilder builder) {
+        if (builder == null) throw new NullPointerException("builder");
+
+        String key = conveyanceType.toLowerCase(Locale.ROOT);
+        if (BUILDERS.putIfAbsent(key, builder) != null) {
+            throw new IllegalArgumentException("conveyance type already registered: " + conveyanceType);
+        }
+        BUILDERS.putIfAbsent(conveyanceType, builder);
+    }
+
+    /**
+     * Removes a builder registered for an additional conveyance type, so tests can clean up
+     *
+     * @param conveyanceType name of the conveyance type, matched ignoring case
+     * @return the builder that was registered, or null if none was
+     * @throws IllegalArgumentException if the name is one of the built in conveyance types
+     */
+    static DateCodeBuilder unregisterDateCodeBuilder(String conveyanceType) {
+        String key = conveyanceType.toLowerCase(Locale.ROOT);
+        for (ConveyanceType builtIn : ConveyanceType.values()) {
+            if (builtIn.getName().toLowerCase(Locale.ROOT).equals(key)) {
+                throw new IllegalArgumentException("built in conveyance type: " + conveyanceType);
+            }
+        }
+
+        // Drop the name as registered too, whatever its case
+        DateCodeBuilder builder = BUILDERS.remove(key);
+        BUILDERS.keySet().removeIf(name -> name.toLowerCase(Locale.ROOT).equals(key));
+        return builder;
+    }
+
+    /**
+     * Compiles a date code pattern and registers it as an additional conveyance type
+     *
+     * @param conveyanceType name of the conveyance type, matched ignoring case
+     * @param pattern pattern such as {@code H{A-Z minus I,O}DD}; see {@link PatternDateCodeBuilder}
+     * @return compiled builder
+     * @throws IllegalArgumentException if the pattern is not valid or a builder is already
+     *                                  registered under the name
+     */
+    public static DateCodeBuilder registerPattern(String conveyanceType, String pattern) {
+        DateCodeBuilder builder = PatternDateCodeBuilder.compile(pattern);
+        registerDateCodeBuilder(conveyanceType, builder);
+        return builder;
     }
 }
@@ -0,0 +1,283 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of date codes updated by many threads, such as items scanned per code.
+ *
+ * Counts are held per dense code index of the builder, which is a perfect hash of the code
+ * characters, so counting a code takes no map lookup and no allocation. Each thread adds to
+ * one of several stripes and reads sum the stripes. A stripe is a run of one cell per code,
+ * padded so that no two stripes share a cache line; within a stripe neighbouring codes do
+ * share lines, so threads are spread over the stripes. A thread starts on a stripe hashed
+ * from its id and, as with {@link LongAdder}, moves to another stripe whenever an add
+ * collides with another thread. Reads taken while counts are being added are not an atomic
+ * snapshot of every code, as with {@link LongAdder}.
+ */
+public class DateCodeCounter {
+    // Longs per 64 byte cache line
+    private static final int CELLS_PER_LINE = 8;
+
+    // Stripe hash of each thread, moved on contention; shared by every counter as the probe of LongAdder is
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[]{initialProbe()});
+
+    private final DateCodeBuilder builder;
+    private final int stripeMask;
+    private final int stripeLength;
+    private final AtomicLongArray cells;
+    private final LongAdder malformedCount = new LongAdder();
+
+    /**
+     * Creates a counter with one stripe per available processor
+     *
+     * @param builder builder of the counted codes
+     */
+    public DateCodeCounter(DateCodeBuilder builder) {
+        this(builder, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a counter
+     *
+     * @param builder builder of the counted codes
+     * @param stripes number of stripes, rounded up to a power of two
+     */
+    public DateCodeCounter(DateCodeBuilder builder, int stripes) {
+        if (stripes < 1) throw new IllegalArgumentException("stripes must be positive");
+
+        this.builder = builder;
+        int stripeCount = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripeMask = Math.max(stripeCount, 1) - 1;
+
+        // Whole cache lines per stripe, plus one line so neighbouring stripes never share a line
+        int codeSpaceSize = builder.getCodeSpaceSize();
+        this.stripeLength = (codeSpaceSize + CELLS_PER_LINE - 1) / CELLS_PER_LINE * CELLS_PER_LINE + CELLS_PER_LINE;
+        this.cells = new AtomicLongArray((stripeMask + 1) * stripeLength + CELLS_PER_LINE);
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    /**
+     * Counts one occurrence of a code
+     *
+     * @param dateCode date code
+     * @return false if the code is malformed, in which case it is counted as malformed
+     */
+    public boolean increment(CharSequence dateCode) {
+        return add(builder.getCodeIndex(dateCode), 1);
+    }
+
+    /**
+     * Counts occurrences of a code
+     *
+     * @param dateCode date code
+     * @param count number of occurrences
+     * @return false if the code is malformed, in which case it is counted as malformed
+     */
+    public boolean add(CharSequence dateCode, long count) {
+        return add(builder.getCodeIndex(dateCode), count);
+    }
+
+    /**
+     * Counts one occurrence of a code held as ASCII bytes
+     *
+     * @param source buffer holding the code (read with absolute gets)
+     * @param index index of the first byte of the code
+     * @param length number of bytes in the code
+     * @return false if the code is malformed, in which case it is counted as malformed
+     */
+    public boolean increment(ByteBuffer source, int index, int length) {
+        return add(builder.getCodeIndex(source, index, length), 1);
+    }
+
+    /**
+     * Gets the count of a code
+     *
+     * @param dateCode date code
+     * @return number of occurrences, 0 for malformed codes
+     */
+    public long getCount(CharSequence dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        return codeIndex < 0 ? 0 : getCount(codeIndex);
+    }
+
+    /**
+     * @return number of malformed codes counted
+     */
+    public long getMalformedCount() {
+        return malformedCount.sum();
+    }
+
+    /**
+     * Gets the counts of every code
+     *
+     * @return counts indexed by the dense code index of the builder
+     * @see DateCodeBuilder#getCodeAt(int)
+     */
+    public long[] snapshot() {
+        long[] counts = new long[builder.getCodeSpaceSize()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = getCount(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the counts of every code and sets them to zero
+     *
+     * Each count added concurrently is either in the result or kept for the next call. The
+     * malformed count is left as it is; {@link #snapshotThenReset(long[])} takes both.
+     *
+     * @return counts indexed by the dense code index of the builder
+     */
+    public long[] snapshotThenReset() {
+        long[] counts = new long[builder.getCodeSpaceSize()];
+        sweep(counts);
+        return counts;
+    }
+
+    /**
+     * Adds the counts of every code to an array, sets them to zero, and does the same for the
+     * malformed count
+     *
+     * Each count added concurrently, malformed or not, is either in the result or kept for the
+     * next call.
+     *
+     * @param destination receives the counts indexed by the dense code index of the builder;
+     *                    needs at least {@link DateCodeBuilder#getCodeSpaceSize()} elements
+     * @return number of malformed codes counted since the last reset
+     */
+    public long snapshotThenReset(long[] destination) {
+        sweep(destination);
+        return malformedCount.sumThenReset();
+    }
+
+    /**
+     * Sets every count, including the malformed count, to zero
+     */
+    public void reset() {
+        snapshotThenReset(new long[builder.getCodeSpaceSize()]);
+    }
+
+    /**
+     * Gets the counts aggregated by the day each code resolves to
+     *
+     * A code that may represent more than one date is counted under the most recent one.
+     * Codes that decode to no date are left out.
+     *
+     * @param reference instant the codes are decoded against
+     * @return counts by local date in the time zone of the builder, oldest first; only days
+     * with counts are present
+     */
+    public SortedMap<LocalDate, Long> getCountsByDay(Instant reference) {
+        long[] counts = snapshot();
+        long[] candidates = new long[builder.getMaxCandidateCount()];
+        SortedMap<LocalDate, Long> countsByDay = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+
+            // Candidates are oldest first, so the last one is the most recent
+            int candidateCount = builder.getEpochDaysForCodeIndex(i, reference.toEpochMilli(), candidates, 0);
+            if (candidateCount > 0) {
+                countsByDay.merge(LocalDate.ofEpochDay(candidates[candidateCount - 1]), counts[i], Long::sum);
+            }
+        }
+        return countsByDay;
+    }
+
+    /**
+     * Moves every code count into an array, one stripe at a time
+     */
+    private void sweep(long[] destination) {
+        int codeSpaceSize = builder.getCodeSpaceSize();
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = cellIndex(stripe, 0);
+            for (int i = 0; i < codeSpaceSize; i++) {
+                if (cells.get(base + i) != 0) destination[i] += cells.getAndSet(base + i, 0);
+            }
+        }
+    }
+
+    private boolean add(int codeIndex, long count) {
+        if (codeIndex < 0) {
+            malformedCount.add(count);
+            return false;
+        }
+
+        int[] probe = PROBE.get();
+        int index = cellIndex(probe[0] & stripeMask, codeIndex);
+        long value = cells.get(index);
+        if (!cells.compareAndSet(index, value, value + count)) {
+            // Another thread is adding to the same cell, so move this thread to another stripe
+            probe[0] = advanceProbe(probe[0]);
+            cells.getAndAdd(cellIndex(probe[0] & stripeMask, codeIndex), count);
+        }
+        return true;
+    }
+
+    private long getCount(int codeIndex) {
+        long count = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            count += cells.get(cellIndex(stripe, codeIndex));
+        }
+        return count;
+    }
+
+    /**
+     * Gets the index of a cell; the first line of the array is left as padding
+     */
+    private int cellIndex(int stripe, int codeIndex) {
+        return CELLS_PER_LINE + stripe * stripeLength + codeIndex;
+    }
+
+    /**
+     * Hashes the id of the current thread into its first stripe hash
+     */
+    private static int initialProbe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Moves a stripe hash to the next value of a xorshift sequence
+     */
+    private static int advanceProbe(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the decoded dates of every code of a builder until the reference date rolls over.
+ *
+ * Within one hour (air conveyance) or one local day (ocean and surface conveyance) a code
+ * always decodes to the same dates, so results are held in an array indexed by the dense
+ * code index of the builder. The whole array is replaced atomically when the current time
+ * leaves the period it was built for. Hits take no locks.
+ */
+public class DateCodeDecodeCache {
+    private final DateCodeBuilder builder;
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Creates an empty cache
+     *
+     * @param builder builder whose decoded dates are cached
+     */
+    public DateCodeDecodeCache(DateCodeBuilder builder) {
+        this.builder = builder;
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    /**
+     * Gets every date and time the date code may represent, oldest first
+     *
+     * @param dateCode date code to decode
+     * @return unmodifiable list of candidate dates and times
+     * @see DateCodeBuilder#getDateTimesForCode(String)
+     */
+    public List<ZonedDateTime> getDateTimesForCode(String dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        if (codeIndex < 0) {
+            // Malformed or out of range codes are left to the builder (which throws for most)
+            missCount.increment();
+            return Collections.unmodifiableList(builder.getDateTimesForCode(dateCode));
+        }
+
+        Generation current = currentGeneration();
+        AtomicReferenceArray<List<ZonedDateTime>> results = current.results;
+        List<ZonedDateTime> values = results.get(codeIndex);
+        if (values != null) {
+            hitCount.increment();
+            return values;
+        }
+
+        // Decode against the start of the generation so a result never outlives its window
+        missCount.increment();
+        values = Collections.unmodifiableList(new ArrayList<>(
+                builder.getDateTimesForCode(dateCode, Instant.ofEpochMilli(current.startMillis))));
+        results.set(codeIndex, values);
+        return values;
+    }
+
+    /**
+     * Gets every date the date code may represent, oldest first
+     *
+     * @param dateCode date code to decode
+     * @return new list of new candidate dates
+     * @see DateCodeBuilder#getCalendarDatesForCode(String)
+     */
+    public List<Date> getCalendarDatesForCode(String dateCode) {
+        List<ZonedDateTime> dateTimes = getDateTimesForCode(dateCode);
+        List<Date> values = new ArrayList<>(dateTimes.size());
+        for (ZonedDateTime dateTime : dateTimes) {
+            values.add(Date.from(dateTime.toInstant()));
+        }
+        return values;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Gets the generation of results for the current hour or day, replacing an expired one
+     */
+    private Generation currentGeneration() {
+        long now = builder.getClock().millis();
+        Generation current = generation.get();
+        while (current == null || now < current.startMillis || now >= current.endMillis) {
+            Generation next = new Generation(now);
+            if (generation.compareAndSet(current, next)) {
+                return next;
+            }
+            current = generation.get();
+        }
+        return current;
+    }
+
+    /**
+     * Decoded results valid from one hour or day boundary to the next
+     */
+    private final class Generation {
+        private final long startMillis;
+        private final long endMillis;
+        private final AtomicReferenceArray<List<ZonedDateTime>> results;
+
+        private Generation(long now) {
+            ResolutionPeriod period = ResolutionPeriod.of(builder, now);
+            startMillis = period.getStartMillis();
+            endMillis = period.getEndMillis();
+            results = new AtomicReferenceArray<>(builder.getCodeSpaceSize());
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes a column of date codes in a delimited flat file (such as a CSV extract).
+ *
+ * The input is memory mapped in line aligned chunks which are decoded in parallel, without
+ * creating a {@code String} per line, using the rules of the supplied builder. Results are
+ * streamed to the output channel in input order: for every line one byte holding the number
+ * of candidates, followed by each candidate as a 4-byte big endian epoch day. Blank or
+ * malformed codes (including a header line) are written with a count of zero. Every code in a
+ * file is resolved against the same instant, read once from the clock of the builder.
+ */
+public class DateCodeFileDecoder {
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final long DEFAULT_MAX_BYTES_IN_FLIGHT = 128L * 1024 * 1024;
+
+    // Largest output buffer a chunk starts with; it grows as the chunk fills it
+    private static final int MAX_INITIAL_OUTPUT_SIZE = 1024 * 1024;
+
+    // Bytes read at a time while looking for the end of a line
+    private static final int SCAN_SIZE = 4096;
+
+    private final DateCodeBuilder builder;
+    private final int column;
+    private final byte delimiter;
+    private final int parallelism;
+    private final int chunkSize;
+    private final long maxBytesInFlight;
+
+    /**
+     * Creates a decoder that uses every available processor, 8 MB chunks and up to 128 MB of
+     * input in flight
+     *
+     * @param builder builder whose rules decode the codes
+     * @param column zero based index of the column holding the codes
+     * @param delimiter ASCII character separating columns
+     */
+    public DateCodeFileDecoder(DateCodeBuilder builder, int column, char delimiter) {
+        this(builder, column, delimiter, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a decoder
+     *
+     * @param builder builder whose rules decode the codes
+     * @param column zero based index of the column holding the codes
+     * @param delimiter ASCII character separating columns
+     * @param parallelism number of chunks decoded at the same time
+     * @param chunkSize approximate number of bytes mapped per chunk
+     */
+    public DateCodeFileDecoder(DateCodeBuilder builder, int column, char delimiter, int parallelism,
+                               int chunkSize) {
+        this(builder, column, delimiter, parallelism, chunkSize,
+                Math.min(2L * parallelism * chunkSize, DEFAULT_MAX_BYTES_IN_FLIGHT));
+    }
+
+    /**
+     * Creates a decoder
+     *
+     * The output of a chunk is held in memory until every chunk before it has been written, so
+     * the heap used is bounded by the input bytes in flight: about as many bytes again for
+     * lines with one candidate, at most {@code 1 + 4 * getMaxCandidateCount()} per line.
+     *
+     * @param builder builder whose rules decode the codes
+     * @param column zero based index of the column holding the codes
+     * @param delimiter ASCII character separating columns
+     * @param parallelism number of chunks decoded at the same time
+     * @param chunkSize approximate number of bytes mapped per chunk
+     * @param maxBytesInFlight input bytes decoded ahead of the output; at least one chunk is
+     *                         always in flight
+     */
+    public DateCodeFileDecoder(DateCodeBuilder builder, int column, char delimiter, int parallelism,
+                               int chunkSize, long maxBytesInFlight) {
+        if (column < 0) throw new IllegalArgumentException("negative column index");
+        if (delimiter > 127) throw new IllegalArgumentException("delimiter must be an ASCII character");
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunk size must be positive");
+        if (maxBytesInFlight < 1) throw new IllegalArgumentException("bytes in flight must be positive");
+
+        this.builder = builder;
+        this.column = column;
+        this.delimiter = (byte) delimiter;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxBytesInFlight = maxBytesInFlight;
+    }
+
+    /**
+     * Decodes every line of a file
+     *
+     * @param input file to decode
+     * @param output channel receiving the decoded lines
+     * @return counts and throughput of the run
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public Summary decode(Path input, WritableByteChannel output) throws IOException {
+        long startTime = System.nanoTime();
+        long recordCount = 0;
+        long candidateCount = 0;
+        DecodeStatusCounts statusCounts = new DecodeStatusCounts();
+        long size;
+        long referenceEpochMillis = builder.getClock().millis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            size = channel.size();
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long position = 0;
+            long bytesInFlight = 0;
+
+            while (position < size || !pending.isEmpty()) {
+                // Keep a bounded number of input bytes in flight so results stream out in order
+                while (position < size && (pending.isEmpty() || bytesInFlight + chunkSize <= maxBytesInFlight)) {
+                    long end = findChunkEnd(channel, position, size);
+                    final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            end - position);
+                    pending.add(executor.submit(() -> decodeChunk(buffer, referenceEpochMillis)));
+                    bytesInFlight += end - position;
+                    position = end;
+                }
+
+                Chunk chunk = await(pending.poll());
+                while (chunk.output.hasRemaining()) {
+                    output.write(chunk.output);
+                }
+                bytesInFlight -= chunk.inputSize;
+                recordCount += chunk.recordCount;
+                candidateCount += chunk.candidateCount;
+                statusCounts.add(chunk.statusCounts);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Summary(size, recordCount, candidateCount, statusCounts, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Finds the end of the chunk starting at a position, extended to just past the next line break
+     */
+    private long findChunkEnd(FileChannel channel, long position, long size) throws IOException {
+        long end = position + chunkSize;
+        if (end >= size) return size;
+
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        while (end < size) {
+            scan.clear();
+            int read = channel.read(scan, end);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    end += i + 1;
+                    if (end - position > Integer.MAX_VALUE) throw new IOException("line too long to map");
+                    return end;
+                }
+            }
+            end += read;
+        }
+
+        if (size - position > Integer.MAX_VALUE) throw new IOException("line too long to map");
+        return size;
+    }
+
+    private Chunk decodeChunk(ByteBuffer input, long referenceEpochMillis) {
+        int limit = input.limit();
+        long[] candidates = new long[builder.getMaxCandidateCount()];
+        Chunk chunk = new Chunk(limit, Math.max(Math.min(limit, MAX_INITIAL_OUTPUT_SIZE), 64));
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && input.get(lineEnd) != '\n') lineEnd++;
+            int nextLine = lineEnd + 1;
+            if (lineEnd > lineStart && input.get(lineEnd - 1) == '\r') lineEnd--;
+
+            // Skip to the code column
+            int fieldStart = lineStart;
+            int field = 0;
+            while (field < column && fieldStart < lineEnd) {
+                if (input.get(fieldStart++) == delimiter) field++;
+            }
+
+            int count = 0;
+            if (field == column) {
+                int fieldEnd = fieldStart;
+                while (fieldEnd < lineEnd && input.get(fieldEnd) != delimiter) fieldEnd++;
+
+                // Ignore surrounding blanks and quotes
+                while (fieldStart < fieldEnd && isPadding(input.get(fieldStart))) fieldStart++;
+                while (fieldEnd > fieldStart && isPadding(input.get(fieldEnd - 1))) fieldEnd--;
+
+                if (fieldEnd > fieldStart) {
+                    // Malformed codes are classified rather than thrown, as they are common in scanner feeds
+                    int length = fieldEnd - fieldStart;
+                    int codeIndex = builder.getCodeIndex(input, fieldStart, length);
+                    if (codeIndex < 0) {
+                        chunk.statusCounts.increment(builder.getDecodeStatus(input, fieldStart, length));
+                    } else {
+                        chunk.statusCounts.increment(DecodeStatus.OK);
+                        count = builder.getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, candidates, 0);
+                    }
+                }
+            }
+
+            chunk.write(count, candidates);
+            lineStart = nextLine;
+        }
+
+        chunk.output.flip();
+        return chunk;
+    }
+
+    private static boolean isPadding(byte b) {
+        return b == ' ' || b == '\t' || b == '"';
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while decoding");
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Decoded output of one chunk of the input
+     */
+    private static final class Chunk {
+        private final int inputSize;
+        private ByteBuffer output;
+        private long recordCount;
+        private long candidateCount;
+        private final DecodeStatusCounts statusCounts = new DecodeStatusCounts();
+
+        private Chunk(int inputSize, int capacity) {
+            this.inputSize = inputSize;
+            output = ByteBuffer.allocate(capacity);
+        }
+
+        private void write(int count, long[] candidates) {
+            if (output.remaining() < 1 + count * 4) {
+                ByteBuffer larger = ByteBuffer.allocate(output.capacity() * 2);
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+
+            output.put((byte) count);
+            for (int i = 0; i < count; i++) {
+                output.putInt((int) candidates[i]);
+            }
+            recordCount++;
+            candidateCount += count;
+        }
+    }
+
+    /**
+     * Counts and throughput of one decoded file
+     */
+    public static final class Summary {
+        private final long byteCount;
+        private final long recordCount;
+        private final long candidateCount;
+        private final DecodeStatusCounts statusCounts;
+        private final long elapsedNanos;
+
+        Summary(long byteCount, long recordCount, long candidateCount, DecodeStatusCounts statusCounts,
+                long elapsedNanos) {
+            this.byteCount = byteCount;
+            this.recordCount = recordCount;
+            this.candidateCount = candidateCount;
+            this.statusCounts = statusCounts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public long getRecordCount() {
+            return recordCount;
+        }
+
+        public long getCandidateCount() {
+            return candidateCount;
+        }
+
+        public long getMalformedCount() {
+            return statusCounts.getErrorCount();
+        }
+
+        /**
+         * Gets the number of non-blank codes with each status
+         *
+         * @return counts by status
+         */
+        public DecodeStatusCounts getStatusCounts() {
+            return statusCounts;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the input throughput in megabytes (10^6 bytes) per second
+         *
+         * @return megabytes per second
+         */
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : byteCount * 1000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records (%d malformed) from %d bytes in %.3f s, %.1f MB/s",
+                    recordCount, getMalformedCount(), byteCount, elapsedNanos / 1e9, getMegabytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.LocalDate;
+
+/**
+ * Index of inventory rows by date code, for answering age queries without decoding every row.
+ *
+ * Rows are held in one {@link RowBitmap} per code in the dense code space of the builder.
+ * A query decodes each code once, using the rules of the builder against the current time
+ * of its clock, and ORs together the bitmaps of the codes that fall in the window. Decoded
+ * dates are kept until the hour (air conveyance) or day rolls over. Rows can be added and
+ * removed at any time. Not safe for use by multiple threads without external synchronization.
+ */
+public class DateCodeIndex {
+    private static final long NO_CANDIDATE = Long.MIN_VALUE;
+
+    private final DateCodeBuilder builder;
+    private final RowBitmap[] rowsByCode;
+    private long rowCount;
+
+    // Most recent candidate day of each code, and the hour or day it was decoded for
+    private long[] newestEpochDays;
+    private ResolutionPeriod resolvedPeriod;
+    private long resolvedEpochDay;
+
+    /**
+     * Creates an empty index
+     *
+     * @param builder builder whose codes are indexed
+     */
+    public DateCodeIndex(DateCodeBuilder builder) {
+        this.builder = builder;
+        this.rowsByCode = new RowBitmap[builder.getCodeSpaceSize()];
+    }
+
+    /**
+     * Adds a row
+     *
+     * @param rowId non-negative id of the row
+     * @param dateCode date code of the row
+     * @return true if the row was not already indexed under the code
+     * @throws IllegalArgumentException if the code is not well formed or the id is negative
+     */
+    public boolean add(int rowId, CharSequence dateCode) {
+        int codeIndex = getCodeIndex(dateCode);
+        RowBitmap rows = rowsByCode[codeIndex];
+        if (rows == null) {
+            rows = new RowBitmap();
+            rowsByCode[codeIndex] = rows;
+        }
+
+        boolean added = rows.add(rowId);
+        if (added) rowCount++;
+        return added;
+    }
+
+    /**
+     * Removes a row
+     *
+     * @param rowId id of the row
+     * @param dateCode date code the row was added with
+     * @return true if the row was indexed under the code
+     * @throws IllegalArgumentException if the code is not well formed
+     */
+    public boolean remove(int rowId, CharSequence dateCode) {
+        RowBitmap rows = rowsByCode[getCodeIndex(dateCode)];
+        boolean removed = rows != null && rows.remove(rowId);
+        if (removed) rowCount--;
+        return removed;
+    }
+
+    /**
+     * @return number of rows in the index
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the rows whose most recent possible date is more than a number of days ago
+     *
+     * @param days age in days; 0 matches every row dated before today
+     * @return new set of matching row ids
+     */
+    public RowBitmap getRowsOlderThan(int days) {
+        resolve();
+        return getRowsDecodedBetween(Long.MIN_VALUE, resolvedEpochDay - days - 1);
+    }
+
+    /**
+     * Gets the rows whose most recent possible date is within a range
+     *
+     * @param from first date (inclusive), in the time zone of the builder
+     * @param to last date (inclusive), in the time zone of the builder
+     * @return new set of matching row ids
+     */
+    public RowBitmap getRowsDecodedBetween(LocalDate from, LocalDate to) {
+        resolve();
+        return getRowsDecodedBetween(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    private RowBitmap getRowsDecodedBetween(long fromEpochDay, long toEpochDay) {
+        RowBitmap result = new RowBitmap();
+        for (int i = 0; i < rowsByCode.length; i++) {
+            long epochDay = newestEpochDays[i];
+            if (rowsByCode[i] != null && epochDay != NO_CANDIDATE && epochDay >= fromEpochDay
+                    && epochDay <= toEpochDay) {
+                result.or(rowsByCode[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decodes every code again if the hour or day has rolled over since the last query
+     */
+    private void resolve() {
+        long now = builder.getClock().millis();
+        if (resolvedPeriod != null && resolvedPeriod.contains(now)) return;
+
+        long[] epochDays = new long[rowsByCode.length];
+        long[] candidates = new long[builder.getMaxCandidateCount()];
+        for (int i = 0; i < epochDays.length; i++) {
+            // Candidates are oldest first, so the last one is the most recent
+            int count = builder.getEpochDaysForCodeIndex(i, now, candidates, 0);
+            epochDays[i] = count == 0 ? NO_CANDIDATE : candidates[count - 1];
+        }
+
+        newestEpochDays = epochDays;
+        resolvedPeriod = ResolutionPeriod.of(builder, now);
+        resolvedEpochDay = EpochDays.fromEpochMillis(now, builder.getZone());
+    }
+
+    private int getCodeIndex(CharSequence dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        return codeIndex;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * First expired, first out queue of item ids keyed by date code.
+ *
+ * Each item is placed in the bucket of the most recent date its code may represent: one
+ * bucket per epoch hour for builders with hour resolution (air conveyance) and one per epoch
+ * day otherwise. Buckets form a calendar queue, a ring covering every key from the oldest
+ * queued item to the newest, so offering an item and polling the oldest one take constant
+ * time, amortized over the empty buckets the head skips. Items within a bucket come out in
+ * the order they were offered. Item ids are held as primitives.
+ *
+ * The queue is safe for use by multiple threads, but a single lock on the queue guards the
+ * ring, so offers and polls are serialized. Only decoding is done outside the lock, and it is
+ * done once per hour or day, so the lock is held just long enough to add or remove an id.
+ */
+public class DateCodeQueue {
+    private static final long UNRESOLVED = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Largest number of keys from the oldest to the newest queued item
+    private static final int MAX_SPAN = 1 << 26;
+
+    private final DateCodeBuilder builder;
+    private final boolean hourly;
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+    // Ring of buckets; the bucket for firstKey is at ringStart
+    private Bucket[] ring = new Bucket[INITIAL_CAPACITY];
+    private int ringStart;
+    private long firstKey;
+    private int keyCount;
+    private long size;
+
+    /**
+     * Creates an empty queue
+     *
+     * @param builder builder of the codes offered to the queue
+     */
+    public DateCodeQueue(DateCodeBuilder builder) {
+        this.builder = builder;
+        this.hourly = builder.getResolution() == ChronoUnit.HOURS;
+    }
+
+    public DateCodeBuilder getDateCodeBuilder() {
+        return builder;
+    }
+
+    /**
+     * @return unit of the bucket keys: {@link ChronoUnit#HOURS} or {@link ChronoUnit#DAYS}
+     */
+    public ChronoUnit getResolution() {
+        return hourly ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+    }
+
+    /**
+     * Adds an item
+     *
+     * @param itemId non-negative id of the item
+     * @param dateCode date code of the item
+     * @return key of the bucket the item was placed in: epoch hour or epoch day
+     * @throws IllegalArgumentException if the code is not well formed or decodes to no date, or
+     *                                  the id is negative
+     */
+    public long offer(long itemId, CharSequence dateCode) {
+        if (itemId < 0) throw new IllegalArgumentException("negative item id: " + itemId);
+
+        long key = getKey(dateCode);
+        synchronized (this) {
+            bucketFor(key).add(itemId);
+            size++;
+        }
+        return key;
+    }
+
+    /**
+     * Removes the oldest item
+     *
+     * @return id of the item, or -1 if the queue is empty
+     */
+    public synchronized long poll() {
+        if (size == 0) return -1;
+
+        long itemId = ring[ringStart].poll();
+        size--;
+        skipEmptyBuckets();
+        return itemId;
+    }
+
+    /**
+     * Removes up to a number of the oldest items
+     *
+     * @param destination array that receives the ids, oldest first
+     * @param offset index of the first id in the destination
+     * @param length largest number of items to remove
+     * @return number of items removed
+     */
+    public synchronized int poll(long[] destination, int offset, int length) {
+        int count = 0;
+        while (count < length && size > 0) {
+            Bucket bucket = ring[ringStart];
+            while (count < length && !bucket.isEmpty()) {
+                destination[offset + count++] = bucket.poll();
+                size--;
+            }
+            skipEmptyBuckets();
+        }
+        return count;
+    }
+
+    /**
+     * @return key of the oldest bucket: epoch hour or epoch day, or {@link Long#MIN_VALUE} if the
+     * queue is empty
+     */
+    public synchronized long peekKey() {
+        return size == 0 ? Long.MIN_VALUE : firstKey;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the bucket for a key, widening the ring to cover it
+     */
+    private Bucket bucketFor(long key) {
+        if (keyCount == 0) {
+            firstKey = key;
+            keyCount = 1;
+        } else if (key < firstKey) {
+            int gap = checkSpan(firstKey - key + keyCount) - keyCount;
+            ensureCapacity(keyCount + gap);
+            ringStart = (ringStart - gap) & (ring.length - 1);
+            firstKey = key;
+            keyCount += gap;
+        } else if (key - firstKey >= keyCount) {
+            int count = checkSpan(key - firstKey + 1);
+            ensureCapacity(count);
+            keyCount = count;
+        }
+
+        int slot = (ringStart + (int) (key - firstKey)) & (ring.length - 1);
+        Bucket bucket = ring[slot];
+        if (bucket == null) {
+            bucket = new Bucket();
+            ring[slot] = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Moves the head past empty buckets so the oldest bucket is always at the head
+     */
+    private void skipEmptyBuckets() {
+        while (keyCount > 0 && (ring[ringStart] == null || ring[ringStart].isEmpty())) {
+            ringStart = (ringStart + 1) & (ring.length - 1);
+            firstKey++;
+            keyCount--;
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= ring.length) return;
+
+        int capacity = ring.length;
+        while (capacity < count) capacity <<= 1;
+
+        // Unwrap the ring so the head is at slot 0
+        Bucket[] buckets = new Bucket[capacity];
+        for (int i = 0; i < keyCount; i++) {
+            buckets[i] = ring[(ringStart + i) & (ring.length - 1)];
+        }
+        ring = buckets;
+        ringStart = 0;
+    }
+
+    private static int checkSpan(long count) {
+        if (count > MAX_SPAN) throw new IllegalArgumentException("date code too far from the queued items");
+        return (int) count;
+    }
+
+    /**
+     * Gets the bucket key of the most recent date a code may represent
+     */
+    private long getKey(CharSequence dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+
+        Generation current = currentGeneration();
+        long key = current.keys.get(codeIndex);
+        if (key == UNRESOLVED) {
+            // Decode against the start of the generation so a key never outlives its window
+            key = resolveKey(codeIndex, current.startMillis);
+            if (key == UNRESOLVED) throw new IllegalArgumentException("no date for code: " + dateCode);
+            current.keys.set(codeIndex, key);
+        }
+        return key;
+    }
+
+    /**
+     * Decodes a code into the epoch hour or epoch day of its most recent candidate
+     *
+     * @return key, or {@link #UNRESOLVED} if the code decodes to no date
+     */
+    private long resolveKey(int codeIndex, long referenceMillis) {
+        long[] candidates = new long[builder.getMaxCandidateCount()];
+        int count = hourly
+                ? builder.getEpochHoursForCodeIndex(codeIndex, referenceMillis, candidates, 0)
+                : builder.getEpochDaysForCodeIndex(codeIndex, referenceMillis, candidates, 0);
+
+        // Candidates are oldest first, so the last one is the most recent
+        return count == 0 ? UNRESOLVED : candidates[count - 1];
+    }
+
+    /**
+     * Gets the generation of keys for the current hour or day, replacing an expired one
+     */
+    private Generation currentGeneration() {
+        long now = builder.getClock().millis();
+        Generation current = generation.get();
+        while (current == null || now < current.startMillis || now >= current.endMillis) {
+            Generation next = new Generation(now);
+            if (generation.compareAndSet(current, next)) {
+                return next;
+            }
+            current = generation.get();
+        }
+        return current;
+    }
+
+    /**
+     * Bucket keys valid from one hour or day boundary to the next
+     */
+    private final class Generation {
+        private final long startMillis;
+        private final long endMillis;
+        private final AtomicLongArray keys;
+
+        private Generation(long now) {
+            ResolutionPeriod period = ResolutionPeriod.of(builder, now);
+            startMillis = period.getStartMillis();
+            endMillis = period.getEndMillis();
+            keys = new AtomicLongArray(builder.getCodeSpaceSize());
+            for (int i = 0; i < keys.length(); i++) {
+                keys.set(i, UNRESOLVED);
+            }
+        }
+    }
+
+    /**
+     * Item ids of one key in offer order
+     */
+    private static final class Bucket {
+        private long[] items = new long[4];
+        private int head;
+        private int count;
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void add(long itemId) {
+            if (count == items.length) {
+                long[] grown = new long[items.length << 1];
+                for (int i = 0; i < count; i++) {
+                    grown[i] = items[(head + i) & (items.length - 1)];
+                }
+                items = grown;
+                head = 0;
+            }
+            items[(head + count++) & (items.length - 1)] = itemId;
+        }
+
+        private long poll() {
+            long itemId = items[head];
+            head = (head + 1) & (items.length - 1);
+            count--;
+            return itemId;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Shared lookup tables and ASCII write helpers used by the date code builders.
+ *
+ * All code strings handed out by the builders come from tables built once at class
+ * initialization, so encoding a code never formats or concatenates strings.
+ */
+final class DateCodeTables {
+    /**
+     * Number of days in the longest (leap) year
+     */
+    static final int MAX_DAY_OF_YEAR = 366;
+
+    /**
+     * Zero padded 3-digit Julian day codes indexed by day of year ("000" through "366")
+     */
+    private static final String[] JULIAN_DAY_CODES = buildJulianDayCodes();
+
+    /**
+     * Values of the ASCII digits indexed by character, -1 for every other character
+     */
+    private static final byte[] DIGIT_VALUES = buildDigitValues();
+
+    private DateCodeTables() {
+    }
+
+    /**
+     * Gets the interned 3-digit Julian day code for the specified day of year
+     *
+     * @param dayOfYear day of year (1 - 366)
+     * @return Date code in the format DDD
+     */
+    static String julianDayCode(int dayOfYear) {
+        return JULIAN_DAY_CODES[dayOfYear];
+    }
+
+    /**
+     * Copies the ASCII characters of a code into a character array
+     *
+     * @param code code to copy
+     * @param destination target array
+     * @param offset index of the first character to write
+     * @return number of characters written
+     */
+    static int write(String code, char[] destination, int offset) {
+        int length = code.length();
+        code.getChars(0, length, destination, offset);
+        return length;
+    }
+
+    /**
+     * Copies the ASCII bytes of a code into a byte array
+     *
+     * @param code code to copy
+     * @param destination target array
+     * @param offset index of the first byte to write
+     * @return number of bytes written
+     */
+    static int write(String code, byte[] destination, int offset) {
+        int length = code.length();
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = (byte) code.charAt(i);
+        }
+        return length;
+    }
+
+    /**
+     * Appends the ASCII characters of a code to a string builder
+     *
+     * @param code code to append
+     * @param destination target builder
+     * @return number of characters written
+     */
+    static int write(String code, StringBuilder destination) {
+        destination.append(code);
+        return code.length();
+    }
+
+    /**
+     * Writes the ASCII bytes of a code at the current position of a buffer
+     *
+     * @param code code to write
+     * @param destination target buffer (position is advanced)
+     * @return number of bytes written
+     */
+    static int write(String code, ByteBuffer destination) {
+        int length = code.length();
+        for (int i = 0; i < length; i++) {
+            destination.put((byte) code.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Flattens a table of fixed width codes into their ASCII bytes
+     *
+     * @param codes codes to flatten
+     * @param width length of every code
+     * @return bytes of code {@code i} at {@code i * width} through {@code i * width + width - 1}
+     */
+    static byte[] toAscii(String[] codes, int width) {
+        byte[] bytes = new byte[codes.length * width];
+        for (int i = 0; i < codes.length; i++) {
+            for (int j = 0; j < width; j++) {
+                bytes[i * width + j] = (byte) codes[i].charAt(j);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the Julian day codes ("000" through "366") as a flattened ASCII table
+     *
+     * @return bytes of the code for day {@code d} at {@code d * 3} through {@code d * 3 + 2}
+     */
+    static byte[] julianDayBytes() {
+        return toAscii(JULIAN_DAY_CODES, 3);
+    }
+
+    /**
+     * Gets the value of an ASCII digit
+     *
+     * @param c character to convert
+     * @return value from 0 to 9, or -1 if the character is not a digit
+     */
+    static int digit(char c) {
+        return c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+    }
+
+    /**
+     * Gets the value of an ASCII digit byte
+     *
+     * @param b byte to convert
+     * @return value from 0 to 9, or -1 if the byte is not a digit
+     */
+    static int digit(byte b) {
+        // Bytes above 127 are negative and never digits
+        return b >= 0 ? DIGIT_VALUES[b] : -1;
+    }
+
+    /**
+     * Parses three ASCII digits as a day of year
+     *
+     * @param dateCode date code containing the digits
+     * @param beginIndex index of the first digit
+     * @return day of year from 1 to 366, or -1 if the digits are not a valid day of year
+     */
+    static int dayOfYear(CharSequence dateCode, int beginIndex) {
+        int hundreds = digit(dateCode.charAt(beginIndex));
+        int tens = digit(dateCode.charAt(beginIndex + 1));
+        int ones = digit(dateCode.charAt(beginIndex + 2));
+        if ((hundreds | tens | ones) < 0) return -1;
+
+        int dayOfYear = hundreds * 100 + tens * 10 + ones;
+        return dayOfYear >= 1 && dayOfYear <= MAX_DAY_OF_YEAR ? dayOfYear : -1;
+    }
+
+    /**
+     * Parses three ASCII digits held in a buffer as a day of year, without changing its position
+     *
+     * @param source buffer containing the digits
+     * @param index absolute index of the first digit
+     * @return day of year from 1 to 366, or -1 if the digits are not a valid day of year
+     */
+    static int dayOfYear(ByteBuffer source, int index) {
+        int hundreds = digit(source.get(index));
+        int tens = digit(source.get(index + 1));
+        int ones = digit(source.get(index + 2));
+        if ((hundreds | tens | ones) < 0) return -1;
+
+        int dayOfYear = hundreds * 100 + tens * 10 + ones;
+        return dayOfYear >= 1 && dayOfYear <= MAX_DAY_OF_YEAR ? dayOfYear : -1;
+    }
+
+    /**
+     * Parses three ASCII digits held in a byte array as a day of year
+     *
+     * @param source array containing the digits
+     * @param offset index of the first digit
+     * @return day of year from 1 to 366, or -1 if the digits are not a valid day of year
+     */
+    static int dayOfYear(byte[] source, int offset) {
+        int hundreds = digit(source[offset]);
+        int tens = digit(source[offset + 1]);
+        int ones = digit(source[offset + 2]);
+        if ((hundreds | tens | ones) < 0) return -1;
+
+        int dayOfYear = hundreds * 100 + tens * 10 + ones;
+        return dayOfYear >= 1 && dayOfYear <= MAX_DAY_OF_YEAR ? dayOfYear : -1;
+    }
+
+    /**
+     * Classifies three digit values as a day of year
+     *
+     * @param hundreds value of the first digit, or -1 if it is not a digit
+     * @param tens value of the second digit, or -1 if it is not a digit
+     * @param ones value of the third digit, or -1 if it is not a digit
+     * @return status of the day of year
+     */
+    static DecodeStatus dayOfYearStatus(int hundreds, int tens, int ones) {
+        if ((hundreds | tens | ones) < 0) return DecodeStatus.NON_NUMERIC;
+
+        int dayOfYear = hundreds * 100 + tens * 10 + ones;
+        return dayOfYear >= 1 && dayOfYear <= MAX_DAY_OF_YEAR ? DecodeStatus.OK : DecodeStatus.DAY_OUT_OF_RANGE;
+    }
+
+    /**
+     * Parses a run of ASCII digits
+     *
+     * Unlike {@link Integer#parseInt(String)} no sign character is accepted, as no date code
+     * contains one.
+     *
+     * @param dateCode date code containing the digits
+     * @param beginIndex index of the first digit
+     * @param endIndex index after the last digit
+     * @return value of the digits
+     * @throws NumberFormatException if any character in the range is not a digit
+     */
+    static int parseDigits(CharSequence dateCode, int beginIndex, int endIndex) {
+        int value = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            int digit = dateCode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + dateCode + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a run of ASCII digits held in a buffer, without changing its position
+     *
+     * @param source buffer containing the digits
+     * @param beginIndex absolute index of the first digit
+     * @param endIndex absolute index after the last digit
+     * @return value of the digits
+     * @throws NumberFormatException if any byte in the range is not a digit
+     */
+    static int parseDigits(ByteBuffer source, int beginIndex, int endIndex) {
+        int value = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            int digit = source.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("non-numeric date code");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String[] buildJulianDayCodes() {
+        String[] codes = new String[MAX_DAY_OF_YEAR + 1];
+        for (int day = 0; day <= MAX_DAY_OF_YEAR; day++) {
+            char[] chars = {
+                    (char) ('0' + day / 100),
+                    (char) ('0' + day / 10 % 10),
+                    (char) ('0' + day % 10)};
+            codes[day] = new String(chars).intern();
+        }
+        return codes;
+    }
+
+    private static byte[] buildDigitValues() {
+        byte[] values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int digit = 0; digit <= 9; digit++) {
+            values['0' + digit] = (byte) digit;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Converts date codes of one builder into the codes of another for the same date.
+ *
+ * Every source code is decoded once against a reference instant and its target code kept in
+ * a table indexed by the dense code index, so converting a code is a lookup. Codes with hour
+ * resolution are converted by instant; others by epoch day, so a day keeps its calendar date
+ * across time zones. Codes that may represent more than one date are resolved by an
+ * {@link AmbiguityPolicy}. A transcoder is immutable; create a new one when the reference
+ * moves on to another hour or day.
+ */
+public class DateCodeTranscoder {
+    private final DateCodeBuilder source;
+    private final DateCodeBuilder target;
+    private final Instant reference;
+    private final AmbiguityPolicy policy;
+
+    // Target code of each source code index, null if the code is rejected
+    private final String[] targetCodes;
+    private final byte[] targetBytes;
+
+    /**
+     * Creates a transcoder
+     *
+     * @param source builder of the codes to convert
+     * @param target builder of the converted codes
+     * @param reference instant the source codes are decoded against
+     * @param policy how codes with more than one candidate date are resolved
+     */
+    public DateCodeTranscoder(DateCodeBuilder source, DateCodeBuilder target, Instant reference,
+                              AmbiguityPolicy policy) {
+        this.source = source;
+        this.target = target;
+        this.reference = reference;
+        this.policy = policy;
+
+        int codeLength = target.getCodeLength();
+        targetCodes = new String[source.getCodeSpaceSize()];
+        targetBytes = new byte[targetCodes.length * codeLength];
+        long[] candidates = new long[source.getMaxCandidateCount()];
+        for (int i = 0; i < targetCodes.length; i++) {
+            targetCodes[i] = transcodeCodeIndex(i, candidates);
+            if (targetCodes[i] != null) DateCodeTables.write(targetCodes[i], targetBytes, i * codeLength);
+        }
+    }
+
+    public DateCodeBuilder getSource() {
+        return source;
+    }
+
+    public DateCodeBuilder getTarget() {
+        return target;
+    }
+
+    public Instant getReference() {
+        return reference;
+    }
+
+    public AmbiguityPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Converts a code
+     *
+     * @param dateCode code of the source builder
+     * @return code of the target builder for the same date
+     * @throws IllegalArgumentException if the code is malformed, decodes to no date, or is
+     *                                  ambiguous and rejected by the policy
+     */
+    public String transcode(CharSequence dateCode) {
+        int codeIndex = source.getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+
+        String targetCode = targetCodes[codeIndex];
+        if (targetCode == null) throw new IllegalArgumentException("date code rejected: " + dateCode);
+        return targetCode;
+    }
+
+    /**
+     * Converts codes in bulk
+     *
+     * @param dateCodes codes of the source builder
+     * @param offset index of the first code
+     * @param length number of codes
+     * @param destination array that receives the target codes; null for rejected codes
+     * @param destinationOffset index of the first target code
+     * @return number of codes converted
+     */
+    public int transcode(CharSequence[] dateCodes, int offset, int length, String[] destination,
+                         int destinationOffset) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            int codeIndex = source.getCodeIndex(dateCodes[offset + i]);
+            String targetCode = codeIndex < 0 ? null : targetCodes[codeIndex];
+            destination[destinationOffset + i] = targetCode;
+            if (targetCode != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Converts fixed width ASCII codes packed back to back in a buffer
+     *
+     * @param sourceCodes buffer containing the codes (position is unchanged)
+     * @param index absolute index of the first byte of the first code
+     * @param count number of codes, each {@link DateCodeBuilder#getCodeLength()} bytes of the
+     *              source builder long
+     * @param destination array that receives the target codes back to back; the bytes of
+     *                    rejected codes are left unchanged
+     * @param destinationOffset index of the first byte written
+     * @return set with bit {@code i} set if code {@code i} is malformed or rejected
+     * @throws IndexOutOfBoundsException if the codes run past the limit of the buffer
+     */
+    public BitSet transcode(ByteBuffer sourceCodes, int index, int count, byte[] destination,
+                            int destinationOffset) {
+        int sourceLength = source.getCodeLength();
+        int targetLength = target.getCodeLength();
+        if (index < 0 || count < 0 || index + (long) count * sourceLength > sourceCodes.limit()) {
+            throw new IndexOutOfBoundsException("codes exceed buffer limit");
+        }
+
+        BitSet rejectedCodes = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            int codeIndex = source.getCodeIndex(sourceCodes, index + i * sourceLength, sourceLength);
+            if (codeIndex < 0 || targetCodes[codeIndex] == null) {
+                rejectedCodes.set(i);
+            } else {
+                System.arraycopy(targetBytes, codeIndex * targetLength, destination,
+                        destinationOffset + i * targetLength, targetLength);
+            }
+        }
+        return rejectedCodes;
+    }
+
+    /**
+     * Decodes one source code and encodes its date with the target builder
+     *
+     * @return target code, or null if the code is rejected
+     */
+    private String transcodeCodeIndex(int codeIndex, long[] candidates) {
+        boolean hourly = source.getResolution() == ChronoUnit.HOURS;
+        int count = hourly
+                ? source.getEpochHoursForCodeIndex(codeIndex, reference.toEpochMilli(), candidates, 0)
+                : source.getEpochDaysForCodeIndex(codeIndex, reference.toEpochMilli(), candidates, 0);
+        if (count == 0 || (count > 1 && policy == AmbiguityPolicy.REJECT)) return null;
+
+        long newest = candidates[count - 1];
+        if (!hourly) return target.getCodeForEpochDay(newest);
+
+        // Epoch hours are local to the source zone; convert the hour back to an instant
+        long epochMillis = LocalDate.ofEpochDay(Math.floorDiv(newest, 24L)).atStartOfDay(source.getZone())
+                .plusHours(Math.floorMod(newest, 24L)).toInstant().toEpochMilli();
+        return target.getCodeForEpochMillis(epochMillis);
+    }
+}
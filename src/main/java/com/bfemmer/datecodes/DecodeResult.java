@@ -0,0 +1,126 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+
+/**
+ * Status and candidate days of one decoded date code.
+ *
+ * Results for malformed codes are shared constants, so classifying a bad code allocates nothing.
+ */
+public final class DecodeResult {
+    private static final long[] NO_EPOCH_DAYS = new long[0];
+
+    private static final DecodeResult[] FAILURES = buildFailures();
+
+    private final DecodeStatus status;
+    private final long[] epochDays;
+
+    private DecodeResult(DecodeStatus status, long[] epochDays) {
+        this.status = status;
+        this.epochDays = epochDays;
+    }
+
+    /**
+     * Creates the result of a well formed code
+     *
+     * @param epochDays candidate days since January 1, 1970, oldest first (not copied)
+     * @return result with status {@link DecodeStatus#OK}
+     */
+    static DecodeResult ok(long[] epochDays) {
+        return new DecodeResult(DecodeStatus.OK, epochDays);
+    }
+
+    /**
+     * Decodes the well formed code with a dense index into a result
+     *
+     * @param builder builder whose rules decode the code
+     * @param codeIndex index of the code
+     * @param referenceEpochMillis instant the code is resolved against
+     * @return result with status {@link DecodeStatus#OK}
+     */
+    static DecodeResult ok(DateCodeBuilder builder, int codeIndex, long referenceEpochMillis) {
+        long[] epochDays = new long[builder.getMaxCandidateCount()];
+        int count = builder.getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, epochDays, 0);
+        return ok(count == epochDays.length ? epochDays : Arrays.copyOf(epochDays, count));
+    }
+
+    /**
+     * Gets the result of a malformed code
+     *
+     * @param status reason the code is malformed
+     * @return shared result without candidates
+     */
+    static DecodeResult failure(DecodeStatus status) {
+        if (status == DecodeStatus.OK) throw new IllegalArgumentException("not a failure status");
+        return FAILURES[status.ordinal()];
+    }
+
+    public DecodeStatus getStatus() {
+        return status;
+    }
+
+    public boolean isOk() {
+        return status == DecodeStatus.OK;
+    }
+
+    /**
+     * @return number of candidate days, zero unless the status is {@link DecodeStatus#OK}
+     */
+    public int getCandidateCount() {
+        return epochDays.length;
+    }
+
+    /**
+     * Gets a candidate day
+     *
+     * @param index index of the candidate, oldest first
+     * @return days since January 1, 1970
+     */
+    public long getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * @return copy of the candidate days since January 1, 1970, oldest first
+     */
+    public long[] getEpochDays() {
+        return epochDays.clone();
+    }
+
+    @Override
+    public String toString() {
+        return status + "[" + epochDays.length + " candidates]";
+    }
+
+    private static DecodeResult[] buildFailures() {
+        DecodeStatus[] statuses = DecodeStatus.values();
+        DecodeResult[] failures = new DecodeResult[statuses.length];
+        for (DecodeStatus status : statuses) {
+            failures[status.ordinal()] = new DecodeResult(status, NO_EPOCH_DAYS);
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Outcome of decoding a date code without exceptions.
+ */
+public enum DecodeStatus {
+    /**
+     * The code is well formed
+     */
+    OK,
+
+    /**
+     * The code has the wrong number of characters for its conveyance type
+     */
+    BAD_LENGTH,
+
+    /**
+     * The first character of an air conveyance code is not an hour code
+     */
+    BAD_HOUR_LETTER,
+
+    /**
+     * A character that should be a digit is not
+     */
+    NON_NUMERIC,
+
+    /**
+     * The day of year is outside 1 to 366
+     */
+    DAY_OUT_OF_RANGE,
+
+    /**
+     * A literal character of a pattern code does not match the pattern
+     */
+    BAD_LITERAL,
+
+    /**
+     * A week or hour field of a pattern code is out of range
+     */
+    FIELD_OUT_OF_RANGE
+}
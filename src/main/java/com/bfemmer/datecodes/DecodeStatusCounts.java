@@ -0,0 +1,73 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Number of codes with each {@link DecodeStatus} in a bulk decode.
+ */
+public final class DecodeStatusCounts {
+    private final long[] counts = new long[DecodeStatus.values().length];
+
+    void increment(DecodeStatus status) {
+        counts[status.ordinal()]++;
+    }
+
+    void add(DecodeStatusCounts other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public long getCount(DecodeStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    /**
+     * @return number of codes decoded, well formed or not
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return number of codes with any status other than {@link DecodeStatus#OK}
+     */
+    public long getErrorCount() {
+        return getTotalCount() - getCount(DecodeStatus.OK);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (DecodeStatus status : DecodeStatus.values()) {
+            if (text.length() > 0) text.append(", ");
+            text.append(status).append('=').append(counts[status.ordinal()]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+/**
+ * Proleptic Gregorian calendar arithmetic on epoch days (days since January 1, 1970).
+ *
+ * These helpers let the builders resolve date codes with a handful of integer operations
+ * instead of stepping a {@link java.util.Calendar} one day at a time.
+ */
+final class EpochDays {
+    static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+    static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    /**
+     * Days from 0000-03-01 to 1970-01-01
+     */
+    private static final long DAYS_0000_TO_1970 = 719468L;
+
+    /**
+     * Days in one 400 year cycle of the Gregorian calendar
+     */
+    static final int DAYS_PER_ERA = 146097;
+
+    private EpochDays() {
+    }
+
+    static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfYear(long year) {
+        return isLeapYear(year) ? 366 : 365;
+    }
+
+    static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Converts epoch milliseconds to the UTC epoch day containing them
+     */
+    static long fromEpochMillis(long epochMillis) {
+        return Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * Gets the UTC hour of day (0 - 23) of an epoch millisecond value
+     */
+    static int hourOfDay(long epochMillis) {
+        return (int) (Math.floorMod(epochMillis, MILLIS_PER_DAY) / MILLIS_PER_HOUR);
+    }
+
+    /**
+     * Converts epoch milliseconds to the epoch day of the local date in the specified zone
+     */
+    static long fromEpochMillis(long epochMillis, ZoneId zone) {
+        return fromEpochMillis(epochMillis, zone.getRules());
+    }
+
+    /**
+     * Converts epoch milliseconds to the epoch day of the local date under the specified zone rules
+     */
+    static long fromEpochMillis(long epochMillis, ZoneRules rules) {
+        int offsetSeconds = rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        return fromEpochMillis(epochMillis + offsetSeconds * 1000L);
+    }
+
+    /**
+     * Converts a year, month (1 - 12) and day of month to an epoch day
+     */
+    static long of(long year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        long dayOfYear = (153 * shiftedMonth + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Gets the epoch day of January 1 of the specified year
+     */
+    static long firstDayOfYear(long year) {
+        return of(year, 1, 1);
+    }
+
+    /**
+     * Gets the year containing the epoch day
+     */
+    static long year(long epochDay) {
+        long shifted = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, (long) DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+
+        // Years start in March here, so January and February belong to the following year
+        return yearOfEra + era * 400 + (dayOfYear >= 306 ? 1 : 0);
+    }
+
+    /**
+     * Gets the day of year (1 - 366) of the epoch day
+     */
+    static int dayOfYear(long epochDay) {
+        return (int) (epochDay - firstDayOfYear(year(epochDay))) + 1;
+    }
+
+    /**
+     * Subtracts whole years from an epoch day the same way {@code Calendar.add(Calendar.YEAR, -years)}
+     * does, clamping February 29 to February 28 in non-leap years.
+     */
+    static long minusYears(long epochDay, int years) {
+        long[] fields = toFields(epochDay);
+        long year = fields[0] - years;
+        int month = (int) fields[1];
+        int day = (int) Math.min(fields[2], lengthOfMonth(year, month));
+        return of(year, month, day);
+    }
+
+    /**
+     * Splits an epoch day into {year, month (1 - 12), day of month}
+     */
+    private static long[] toFields(long epochDay) {
+        long shifted = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, (long) DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new long[]{year, month, day};
+    }
+}
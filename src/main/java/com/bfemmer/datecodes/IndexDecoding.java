@@ -0,0 +1,79 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Decodes codes through their dense index for the default methods of {@link DateCodeBuilder}.
+ */
+final class IndexDecoding {
+    private IndexDecoding() {
+    }
+
+    /**
+     * Gets the dense index of a code, throwing the exceptions of the built in decoders if it is malformed
+     */
+    static int requireCodeIndex(DateCodeBuilder builder, CharSequence dateCode) {
+        int codeIndex = builder.getCodeIndex(dateCode);
+        if (codeIndex < 0) throw malformed(builder.getDecodeStatus(dateCode));
+        return codeIndex;
+    }
+
+    /**
+     * Gets the dense index of an ASCII code held in a buffer, throwing the exceptions of the
+     * built in decoders if it is malformed
+     */
+    static int requireCodeIndex(DateCodeBuilder builder, ByteBuffer source, int index, int length) {
+        int codeIndex = builder.getCodeIndex(source, index, length);
+        if (codeIndex < 0) throw malformed(builder.getDecodeStatus(source, index, length));
+        return codeIndex;
+    }
+
+    /**
+     * Gets the last millisecond of a day, so that every hour of the day is in the past
+     */
+    static long endOfDay(ZoneId zone, long epochDay) {
+        return LocalDate.ofEpochDay(epochDay + 1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+    }
+
+    /**
+     * Reads ASCII bytes with absolute gets, leaving the position of the buffer unchanged
+     */
+    static CharSequence toCharSequence(ByteBuffer source, int index, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (source.get(index + i) & 0xff);
+        }
+        return CharBuffer.wrap(chars);
+    }
+
+    private static IllegalArgumentException malformed(DecodeStatus status) {
+        if (status == DecodeStatus.NON_NUMERIC) return new NumberFormatException("non-numeric date code");
+        return new IllegalArgumentException("malformed date code: " + status);
+    }
+}
@@ -23,44 +23,240 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
+import java.util.Spliterator;
 
 /**
  * Created by bfemmer on 6/7/2016.
  */
 public class OceanDateCodeBuilder implements DateCodeBuilder {
-    private static OceanDateCodeBuilder instance = null;
+
+    /**
+     * Precomputed ocean conveyance codes indexed by {@code yearDigit * 366 + dayOfYear - 1}
+     */
+    private static final String[] CODE_TABLE = buildCodeTable();
+
+    private static final int CODE_LENGTH = 4;
+
+    /**
+     * ASCII bytes of {@link #CODE_TABLE}, {@value #CODE_LENGTH} per code
+     */
+    private static final byte[] CODE_BYTES = DateCodeTables.toAscii(CODE_TABLE, CODE_LENGTH);
     
+    // Created last, once every table above is initialized
+    private static final OceanDateCodeBuilder INSTANCE = new OceanDateCodeBuilder();
+
+    private final Clock clock;
+    private final ZoneOffsets offsets;
+
+    /**
+     * Creates a builder that reads the current date from the system clock in the default time zone
+     */
+    public OceanDateCodeBuilder() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a builder that reads the current date from a clock
+     *
+     * @param clock source of the current time; its time zone is the one codes are generated
+     *              and resolved in
+     */
+    public OceanDateCodeBuilder(Clock clock) {
+        this.clock = clock;
+        this.offsets = ZoneOffsets.of(clock.getZone());
+    }
+
     public static OceanDateCodeBuilder getInstance() {
-        if (instance == null) {
-            instance = new OceanDateCodeBuilder();
-        }
-        
-        return instance;
+        return INSTANCE;
     }
     
     @Override
-    public String getCode() {
-        return getCode(Calendar.getInstance(Locale.getDefault()));
+    public String getCode(Calendar calendar) {
+        return generateConveyanceCode(calendar);
+    }
+
+    @Override
+    public String getCode(ZonedDateTime dateTime) {
+        return generateConveyanceCode(dateTime.getYear(), dateTime.getDayOfYear());
     }
 
     @Override
-    public String getCode(Calendar calendar) {
-        return generateConveyanceCode(calendar);
+    public String getCodeForEpochDay(long epochDay) {
+        long year = EpochDays.year(epochDay);
+        return generateConveyanceCode(year, (int) (epochDay - EpochDays.firstDayOfYear(year)) + 1);
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis) {
+        return getCodeForEpochDay(offsets.toEpochDay(epochMillis));
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            writeConveyanceCode(offsets.toEpochDay(epochMillis[i]), destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, ZoneId[] zones, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        ZoneId zone = null;
+        ZoneOffsets zoneOffsets = null;
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            // Events usually arrive in runs from one site
+            if (zones[i] != zone) {
+                zone = zones[i];
+                zoneOffsets = ZoneOffsets.of(zone);
+            }
+            writeConveyanceCode(zoneOffsets.toEpochDay(epochMillis[i]), destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochDays(long[] epochDays, int offset, int length, byte[] destination,
+                               int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            writeConveyanceCode(epochDays[i], destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public long[] getEpochDaysForCode(String dateCode, long referenceEpochDay) {
+        // Validate length
+        if (dateCode.length() != CODE_LENGTH) throw new IllegalArgumentException("insufficient length in date code");
+
+        // If not a number, will throw a NumberFormatException
+        int lastDigitOfYearInDateCode = DateCodeTables.parseDigits(dateCode, 0, 1);
+        int dayOfYear = DateCodeTables.parseDigits(dateCode, 1, CODE_LENGTH);
+
+        return new long[]{findEpochDay(lastDigitOfYearInDateCode, dayOfYear, referenceEpochDay)};
+    }
+
+    @Override
+    public int getEpochDaysForCode(ByteBuffer source, int index, int length, long referenceEpochDay,
+                                   long[] destination, int destinationOffset) {
+        // Validate length
+        if (length != CODE_LENGTH) throw new IllegalArgumentException("insufficient length in date code");
+
+        // If not a number, will throw a NumberFormatException
+        int lastDigitOfYearInDateCode = DateCodeTables.parseDigits(source, index, index + 1);
+        int dayOfYear = DateCodeTables.parseDigits(source, index + 1, index + CODE_LENGTH);
+
+        destination[destinationOffset] = findEpochDay(lastDigitOfYearInDateCode, dayOfYear,
+                referenceEpochDay);
+        return 1;
+    }
+
+    @Override
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+
+        destination[destinationOffset] = findEpochDay(codeIndex / DateCodeTables.MAX_DAY_OF_YEAR,
+                codeIndex % DateCodeTables.MAX_DAY_OF_YEAR + 1,
+                EpochDays.fromEpochMillis(referenceEpochMillis, getZone()));
+        return 1;
+    }
+
+    @Override
+    public Spliterator<ZonedDateTime> getCandidateSpliterator(String dateCode, Instant from, Instant to,
+                                                              CandidateOrder order) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        if (from.isAfter(to)) throw new IllegalArgumentException("range ends before it starts");
+
+        // One day in every year ending in the digit
+        int dayOfYear = codeIndex % DateCodeTables.MAX_DAY_OF_YEAR + 1;
+        return new CandidateSpliterator(from.toEpochMilli(), to.toEpochMilli(), getZone(), 10,
+                codeIndex / DateCodeTables.MAX_DAY_OF_YEAR, new int[]{dayOfYear}, 0, true, order);
+    }
+
+    @Override
+    public int getMaxCandidateCount() {
+        return 1;
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        if (DateCodeTables.digit(dateCode.charAt(0)) < 0) return DecodeStatus.NON_NUMERIC;
+        return DateCodeTables.dayOfYearStatus(DateCodeTables.digit(dateCode.charAt(1)),
+                DateCodeTables.digit(dateCode.charAt(2)), DateCodeTables.digit(dateCode.charAt(3)));
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        if (DateCodeTables.digit(source.get(index)) < 0) return DecodeStatus.NON_NUMERIC;
+        return DateCodeTables.dayOfYearStatus(DateCodeTables.digit(source.get(index + 1)),
+                DateCodeTables.digit(source.get(index + 2)), DateCodeTables.digit(source.get(index + 3)));
+    }
+
+    @Override
+    public int getCodeSpaceSize() {
+        return CODE_TABLE.length;
+    }
+
+    @Override
+    public int getCodeIndex(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return -1;
+
+        int lastDigitOfYear = DateCodeTables.digit(dateCode.charAt(0));
+        int dayOfYear = DateCodeTables.dayOfYear(dateCode, 1);
+        if ((lastDigitOfYear | dayOfYear) < 0) return -1;
+
+        return lastDigitOfYear * DateCodeTables.MAX_DAY_OF_YEAR + dayOfYear - 1;
+    }
+
+    @Override
+    public int getCodeIndex(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int lastDigitOfYear = DateCodeTables.digit(source.get(index));
+        int dayOfYear = DateCodeTables.dayOfYear(source, index + 1);
+        if ((lastDigitOfYear | dayOfYear) < 0) return -1;
+
+        return lastDigitOfYear * DateCodeTables.MAX_DAY_OF_YEAR + dayOfYear - 1;
+    }
+
+    @Override
+    public int getCodeIndex(byte[] source, int offset, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int lastDigitOfYear = DateCodeTables.digit(source[offset]);
+        int dayOfYear = DateCodeTables.dayOfYear(source, offset + 1);
+        if ((lastDigitOfYear | dayOfYear) < 0) return -1;
+
+        return lastDigitOfYear * DateCodeTables.MAX_DAY_OF_YEAR + dayOfYear - 1;
     }
 
     @Override
-    public List<Date> getCalendarDatesForCode(String dateCode) {
-        return getCalendarDatesForDateCode(dateCode);
+    public String getCodeAt(int codeIndex) {
+        if (codeIndex < 0 || codeIndex >= CODE_TABLE.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+        return CODE_TABLE[codeIndex];
     }
 
     @Override
-    public boolean isValidFormat(String dateCode) {
-        return false;
+    public Clock getClock() {
+        return clock;
     }
 
     /**
@@ -73,8 +269,8 @@ public class OceanDateCodeBuilder implements DateCodeBuilder {
     private String generateJulianDateCode(Calendar calendar) {
         int day = calendar.get(Calendar.DAY_OF_YEAR);
 
-        // Pad the date with leading zeros
-        return String.format(Locale.getDefault(), "%03d", day);
+        // Zero padded codes are precomputed
+        return DateCodeTables.julianDayCode(day);
     }
 
     /**
@@ -86,54 +282,59 @@ public class OceanDateCodeBuilder implements DateCodeBuilder {
      * @return Date code in the format YDDD
      */
     private String generateConveyanceCode(Calendar calendar) {
-        String code = generateJulianDateCode(calendar);
-
-        int year = calendar.get(Calendar.YEAR);
-        String yearCode = String.format(Locale.getDefault(), "%04d", year);
-
-        // Return concatenation of last digit of year and 3-digit day-of-year code
-        return yearCode.substring(yearCode.length() - 1) + code;
+        return generateConveyanceCode(calendar.get(Calendar.YEAR), calendar.get(Calendar.DAY_OF_YEAR));
     }
 
-    private List<Date> getCalendarDatesForDateCode(String dateCode) {
-        List<Date> values = new ArrayList<>(); // List of dates that will get returned
-
-        // Use Locale.getDefault() versus TimeZone.getTimeZone("GMT") for the calendar instance
-        // as we only care about the date. See the getCalendarDatesForAirDateCode method
-        // to see why the GMT timezone is used there.
-        Calendar calendar = Calendar.getInstance(Locale.getDefault());
+    private static String generateConveyanceCode(long year, int dayOfYear) {
+        // Look up concatenation of last digit of year and 3-digit day-of-year code
+        return CODE_TABLE[(int) Math.floorMod(year, 10L) * DateCodeTables.MAX_DAY_OF_YEAR + dayOfYear - 1];
+    }
 
-        // Validate length
-        if (dateCode.length() != 4) throw new IllegalArgumentException("insufficient length in date code");
+    private static void writeConveyanceCode(long epochDay, byte[] destination, int target) {
+        long year = EpochDays.year(epochDay);
+        int dayOfYear = (int) (epochDay - EpochDays.firstDayOfYear(year)) + 1;
+        int source = ((int) Math.floorMod(year, 10L) * DateCodeTables.MAX_DAY_OF_YEAR + dayOfYear - 1) * CODE_LENGTH;
+        destination[target] = CODE_BYTES[source];
+        destination[target + 1] = CODE_BYTES[source + 1];
+        destination[target + 2] = CODE_BYTES[source + 2];
+        destination[target + 3] = CODE_BYTES[source + 3];
+    }
 
-        // If not a number, will throw a NumberFormatException
-        Integer.parseInt(dateCode);
+    /**
+     * Builds the table of every possible ocean conveyance code
+     *
+     * @return interned codes indexed by {@code yearDigit * 366 + dayOfYear - 1}
+     */
+    private static String[] buildCodeTable() {
+        String[] codes = new String[10 * DateCodeTables.MAX_DAY_OF_YEAR];
+        for (int yearDigit = 0; yearDigit < 10; yearDigit++) {
+            for (int day = 1; day <= DateCodeTables.MAX_DAY_OF_YEAR; day++) {
+                codes[yearDigit * DateCodeTables.MAX_DAY_OF_YEAR + day - 1] =
+                        (yearDigit + DateCodeTables.julianDayCode(day)).intern();
+            }
+        }
+        return codes;
+    }
 
+    /**
+     * Finds the day a year digit and day of year represent
+     *
+     * The year is the one in the same decade as the reference date that ends in the digit, and
+     * the day of year is applied leniently, so out of range days roll into the adjacent year.
+     *
+     * @param lastDigitOfYearInDateCode last digit of the year
+     * @param dayOfYear 3-digit day of year
+     * @param referenceEpochDay the day the code is resolved against
+     * @return days since January 1, 1970
+     */
+    private static long findEpochDay(int lastDigitOfYearInDateCode, int dayOfYear, long referenceEpochDay) {
         // Get last digit of current year
-        String temp = String.valueOf(calendar.get(Calendar.YEAR));
-        temp = temp.substring(temp.length() - 1);
-        int lastDigitOfCurrentYear = Integer.parseInt(temp);
-
-        // Get last digit of date code
-        int lastDigitOfYearInDateCode = Integer.parseInt(dateCode.substring(0, 1));
-
-        // Calculate year offset
-        int yearOffset = (lastDigitOfCurrentYear - lastDigitOfYearInDateCode) * -1;
-
-        // Apply offset to year (must be done prior to setting the day of year)
-        calendar.add(Calendar.YEAR, yearOffset);
-
-        // Strip off leading character and set calendar to day of year
-        String dayOfYear = dateCode.substring(dateCode.length() - 3);
-        calendar.set(Calendar.DAY_OF_YEAR, Integer.valueOf(dayOfYear));
+        long currentYear = EpochDays.year(referenceEpochDay);
+        int lastDigitOfCurrentYear = (int) Math.floorMod(currentYear, 10L);
 
-        // Reset hours, minutes, and seconds
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.HOUR, 0);
+        // Apply offset to year
+        long year = currentYear + lastDigitOfYearInDateCode - lastDigitOfCurrentYear;
 
-        // Add date to list and return
-        values.add(calendar.getTime());
-        return values;
+        return EpochDays.firstDayOfYear(year) + dayOfYear - 1;
     }
 }
@@ -0,0 +1,259 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+
+/**
+ * Packs a built in date code into a single {@code int}.
+ *
+ * The conveyance type ordinal is held in the upper half and the dense code index of its
+ * builder in the lower half:
+ * <ul>
+ *     <li>Air: {@code dayDigits * 24 + hourIndex}</li>
+ *     <li>Ocean: {@code yearDigit * 366 + dayOfYear - 1}</li>
+ *     <li>Surface: {@code dayOfYear - 1}</li>
+ * </ul>
+ * Packed codes compare by conveyance type first, then by code index, so sorting an
+ * {@code int[]} groups codes of the same type together. Codes never need a String once packed.
+ */
+public final class PackedDateCode {
+    /**
+     * Returned by {@link #tryPack(ConveyanceType, CharSequence)} for malformed codes
+     */
+    public static final int INVALID = -1;
+
+    private static final int TYPE_SHIFT = 16;
+    private static final int INDEX_MASK = (1 << TYPE_SHIFT) - 1;
+
+    private static final int HOURS_PER_DAY = 24;
+    private static final int DAYS_PER_YEAR_DIGIT = DateCodeTables.MAX_DAY_OF_YEAR;
+
+    private static final ConveyanceType[] CONVEYANCE_TYPES = ConveyanceType.values();
+
+    private PackedDateCode() {
+    }
+
+    /**
+     * Packs a date code
+     *
+     * @param conveyanceType conveyance type of the code
+     * @param dateCode date code such as "A01"
+     * @return packed code
+     * @throws IllegalArgumentException if the code is malformed
+     */
+    public static int pack(ConveyanceType conveyanceType, CharSequence dateCode) {
+        int packedCode = tryPack(conveyanceType, dateCode);
+        if (packedCode == INVALID) throw new IllegalArgumentException("invalid " + conveyanceType.getName()
+                + " date code: " + dateCode);
+        return packedCode;
+    }
+
+    /**
+     * Packs a date code without throwing
+     *
+     * @param conveyanceType conveyance type of the code
+     * @param dateCode date code such as "A01"
+     * @return packed code, or {@link #INVALID} if the code is malformed
+     */
+    public static int tryPack(ConveyanceType conveyanceType, CharSequence dateCode) {
+        int codeIndex = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType).getCodeIndex(dateCode);
+        return codeIndex < 0 ? INVALID : of(conveyanceType, codeIndex);
+    }
+
+    /**
+     * Packs the code generated for an instant
+     *
+     * @param conveyanceType conveyance type of the code
+     * @param epochMillis milliseconds since January 1, 1970 00:00 GMT
+     * @return packed code
+     */
+    public static int ofEpochMillis(ConveyanceType conveyanceType, long epochMillis) {
+        DateCodeBuilder builder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+        return of(conveyanceType, builder.getCodeIndex(builder.getCodeForEpochMillis(epochMillis)));
+    }
+
+    /**
+     * Packs an air conveyance code
+     *
+     * @param hourIndex hour of the day (GMT), 0 to 23
+     * @param dayDigits last two digits of the day of year, 0 to 99
+     * @return packed code
+     */
+    public static int ofAir(int hourIndex, int dayDigits) {
+        if (hourIndex < 0 || hourIndex >= HOURS_PER_DAY) throw new IllegalArgumentException("invalid hour: " + hourIndex);
+        if (dayDigits < 0 || dayDigits > 99) throw new IllegalArgumentException("invalid day: " + dayDigits);
+        return of(ConveyanceType.AIR, dayDigits * HOURS_PER_DAY + hourIndex);
+    }
+
+    /**
+     * Packs an ocean conveyance code
+     *
+     * @param yearDigit last digit of the year, 0 to 9
+     * @param dayOfYear day of year, 1 to 366
+     * @return packed code
+     */
+    public static int ofOcean(int yearDigit, int dayOfYear) {
+        if (yearDigit < 0 || yearDigit > 9) throw new IllegalArgumentException("invalid year digit: " + yearDigit);
+        checkDayOfYear(dayOfYear);
+        return of(ConveyanceType.OCEAN, yearDigit * DAYS_PER_YEAR_DIGIT + dayOfYear - 1);
+    }
+
+    /**
+     * Packs a surface conveyance code
+     *
+     * @param dayOfYear day of year, 1 to 366
+     * @return packed code
+     */
+    public static int ofSurface(int dayOfYear) {
+        checkDayOfYear(dayOfYear);
+        return of(ConveyanceType.SURFACE, dayOfYear - 1);
+    }
+
+    /**
+     * Packs a dense code index
+     *
+     * @param conveyanceType conveyance type of the code
+     * @param codeIndex index in the code space of the builder for the conveyance type
+     * @return packed code
+     * @see DateCodeBuilder#getCodeIndex(CharSequence)
+     */
+    public static int of(ConveyanceType conveyanceType, int codeIndex) {
+        if (codeIndex < 0 || codeIndex >= DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType).getCodeSpaceSize()) {
+            throw new IllegalArgumentException("invalid code index: " + codeIndex);
+        }
+        return conveyanceType.ordinal() << TYPE_SHIFT | codeIndex;
+    }
+
+    public static ConveyanceType getConveyanceType(int packedCode) {
+        int ordinal = packedCode >>> TYPE_SHIFT;
+        if (ordinal >= CONVEYANCE_TYPES.length) throw new IllegalArgumentException("invalid packed code: " + packedCode);
+        return CONVEYANCE_TYPES[ordinal];
+    }
+
+    public static int getCodeIndex(int packedCode) {
+        return packedCode & INDEX_MASK;
+    }
+
+    /**
+     * Gets the hour index of an air conveyance code
+     *
+     * @param packedCode packed air conveyance code
+     * @return hour of the day (GMT), 0 to 23
+     */
+    public static int getHourIndex(int packedCode) {
+        checkConveyanceType(packedCode, ConveyanceType.AIR);
+        return getCodeIndex(packedCode) % HOURS_PER_DAY;
+    }
+
+    /**
+     * Gets the day digits of an air conveyance code
+     *
+     * @param packedCode packed air conveyance code
+     * @return last two digits of the day of year, 0 to 99
+     */
+    public static int getDayDigits(int packedCode) {
+        checkConveyanceType(packedCode, ConveyanceType.AIR);
+        return getCodeIndex(packedCode) / HOURS_PER_DAY;
+    }
+
+    /**
+     * Gets the year digit of an ocean conveyance code
+     *
+     * @param packedCode packed ocean conveyance code
+     * @return last digit of the year, 0 to 9
+     */
+    public static int getYearDigit(int packedCode) {
+        checkConveyanceType(packedCode, ConveyanceType.OCEAN);
+        return getCodeIndex(packedCode) / DAYS_PER_YEAR_DIGIT;
+    }
+
+    /**
+     * Gets the day of year of an ocean or surface conveyance code
+     *
+     * @param packedCode packed ocean or surface conveyance code
+     * @return day of year, 1 to 366
+     */
+    public static int getDayOfYear(int packedCode) {
+        switch (getConveyanceType(packedCode)) {
+            case OCEAN:
+                return getCodeIndex(packedCode) % DAYS_PER_YEAR_DIGIT + 1;
+            case SURFACE:
+                return getCodeIndex(packedCode) + 1;
+            default:
+                throw new IllegalArgumentException("no day of year in " + getConveyanceType(packedCode).getName()
+                        + " date codes");
+        }
+    }
+
+    /**
+     * Gets every epoch day the packed code may represent, oldest first
+     *
+     * @param packedCode packed code
+     * @return days since January 1, 1970
+     * @see DateCodeBuilder#getEpochDaysForCode(String)
+     */
+    public static long[] getEpochDays(int packedCode) {
+        // Decode straight from the code index, without going back through the code string
+        DateCodeBuilder builder = getDateCodeBuilder(packedCode);
+        long[] epochDays = new long[builder.getMaxCandidateCount()];
+        int count = builder.getEpochDaysForCodeIndex(getCodeIndex(packedCode), builder.getClock().millis(),
+                epochDays, 0);
+        return count == epochDays.length ? epochDays : Arrays.copyOf(epochDays, count);
+    }
+
+    /**
+     * Compares packed codes by conveyance type, then by code index
+     */
+    public static int compare(int packedCode1, int packedCode2) {
+        return Integer.compare(packedCode1, packedCode2);
+    }
+
+    /**
+     * Gets the date code a packed code was made from
+     *
+     * @param packedCode packed code
+     * @return interned date code such as "A01"
+     */
+    public static String toString(int packedCode) {
+        return getDateCodeBuilder(packedCode).getCodeAt(getCodeIndex(packedCode));
+    }
+
+    private static DateCodeBuilder getDateCodeBuilder(int packedCode) {
+        return DateCodeBuilderFactory.getDateCodeBuilder(getConveyanceType(packedCode));
+    }
+
+    private static void checkConveyanceType(int packedCode, ConveyanceType conveyanceType) {
+        if (getConveyanceType(packedCode) != conveyanceType) {
+            throw new IllegalArgumentException("expected " + conveyanceType.getName() + " date code: "
+                    + toString(packedCode));
+        }
+    }
+
+    private static void checkDayOfYear(int dayOfYear) {
+        if (dayOfYear < 1 || dayOfYear > DateCodeTables.MAX_DAY_OF_YEAR) {
+            throw new IllegalArgumentException("invalid day of year: " + dayOfYear);
+        }
+    }
+}
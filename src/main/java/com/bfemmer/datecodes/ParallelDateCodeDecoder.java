@@ -0,0 +1,267 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Decodes large batches of date codes on a fork/join pool.
+ *
+ * Results are flattened into two primitive arrays: the candidates of code {@code i} are
+ * {@code epochDays[offsets[i]]} through {@code epochDays[offsets[i + 1] - 1]}, oldest first.
+ * Malformed codes have no candidates. Every code in a batch is resolved against the same
+ * instant, read once from the clock of the builder.
+ *
+ * The batch is split into fixed size chunks. Each chunk first counts the candidates of its
+ * codes, the chunk totals are summed to find where each chunk starts, and every chunk then
+ * decodes straight into its part of the output, so the output never needs locking or copying.
+ * Counting looks the number of candidates up in a table per code index, filled in the first
+ * time a batch meets each code, so every code is decoded only once.
+ *
+ * A decoder created with a parallelism owns its pool; close it to shut the pool down.
+ */
+public class ParallelDateCodeDecoder implements AutoCloseable {
+    // Candidate count of a code index not yet decoded in the current batch
+    private static final byte UNKNOWN_COUNT = -1;
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final DateCodeBuilder builder;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int chunkSize;
+
+    /**
+     * Creates a decoder that runs on the common pool with chunks of 65536 codes
+     *
+     * @param builder builder whose rules decode the codes
+     */
+    public ParallelDateCodeDecoder(DateCodeBuilder builder) {
+        this(builder, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Creates a decoder with a pool of its own, kept until the decoder is closed
+     *
+     * @param builder builder whose rules decode the codes
+     * @param parallelism number of chunks decoded at the same time
+     * @param chunkSize number of codes per chunk
+     */
+    public ParallelDateCodeDecoder(DateCodeBuilder builder, int parallelism, int chunkSize) {
+        this(builder, newPool(parallelism), chunkSize, true);
+    }
+
+    /**
+     * Creates a decoder that runs on a caller supplied pool
+     *
+     * @param builder builder whose rules decode the codes
+     * @param pool pool the chunks are decoded on
+     * @param chunkSize number of codes per chunk
+     */
+    public ParallelDateCodeDecoder(DateCodeBuilder builder, ForkJoinPool pool, int chunkSize) {
+        this(builder, pool, chunkSize, false);
+    }
+
+    private ParallelDateCodeDecoder(DateCodeBuilder builder, ForkJoinPool pool, int chunkSize, boolean ownsPool) {
+        if (pool == null) throw new IllegalArgumentException("pool must not be null");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunk size must be positive");
+
+        this.builder = builder;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.chunkSize = chunkSize;
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Gets the size of an epoch day array that can hold the candidates of any batch
+     *
+     * @param codeCount number of codes in the batch
+     * @return worst case number of candidates
+     */
+    public long getMaxEpochDayCount(int codeCount) {
+        return (long) codeCount * builder.getMaxCandidateCount();
+    }
+
+    /**
+     * Decodes a list of codes
+     *
+     * @param dateCodes codes to decode
+     * @param offsets receives {@code dateCodes.size() + 1} candidate offsets
+     * @param epochDays receives the candidate days since January 1, 1970
+     * @return number of codes with each status
+     * @throws IndexOutOfBoundsException if an output array is too small
+     */
+    public DecodeStatusCounts decode(List<? extends CharSequence> dateCodes, int[] offsets, long[] epochDays) {
+        CharSequence[] codes = dateCodes.toArray(new CharSequence[0]);
+        return decode(codes, 0, codes.length, offsets, epochDays);
+    }
+
+    /**
+     * Decodes a run of codes
+     *
+     * @param dateCodes codes to decode
+     * @param offset index of the first code to decode
+     * @param length number of codes to decode
+     * @param offsets receives {@code length + 1} candidate offsets
+     * @param epochDays receives the candidate days since January 1, 1970
+     * @return number of codes with each status
+     * @throws IndexOutOfBoundsException if an output array is too small
+     */
+    public DecodeStatusCounts decode(CharSequence[] dateCodes, int offset, int length, int[] offsets,
+                                     long[] epochDays) {
+        if (offsets.length < length + 1) throw new IndexOutOfBoundsException("offsets too small");
+
+        long referenceEpochMillis = builder.getClock().millis();
+        int chunkCount = (length + chunkSize - 1) / chunkSize;
+        Chunk[] chunks = new Chunk[chunkCount];
+
+        // Chunks racing to fill in the same count write the same value, so the table needs no locking
+        byte[] candidateCounts = new byte[builder.getCodeSpaceSize()];
+        Arrays.fill(candidateCounts, UNKNOWN_COUNT);
+
+        // Count the candidates of every chunk
+        pool.invoke(new ChunkTask(0, chunkCount, chunk -> {
+            int start = chunk * chunkSize;
+            chunks[chunk] = countChunk(dateCodes, offset + start, Math.min(chunkSize, length - start),
+                    referenceEpochMillis, candidateCounts);
+        }));
+
+        // Find where the candidates of each chunk start
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            chunk.base = (int) total;
+            total += chunk.total;
+        }
+        if (total > epochDays.length) throw new IndexOutOfBoundsException("epoch days too small: " + total
+                + " candidates");
+        offsets[length] = (int) total;
+
+        // Decode every chunk into place
+        pool.invoke(new ChunkTask(0, chunkCount, chunk -> {
+            Chunk counted = chunks[chunk];
+            int start = chunk * chunkSize;
+            int position = counted.base;
+            for (int i = 0; i < counted.codeIndexes.length; i++) {
+                offsets[start + i] = position;
+                if (counted.codeIndexes[i] >= 0) {
+                    position += builder.getEpochDaysForCodeIndex(counted.codeIndexes[i], referenceEpochMillis,
+                            epochDays, position);
+                }
+            }
+        }));
+
+        DecodeStatusCounts statusCounts = new DecodeStatusCounts();
+        for (Chunk chunk : chunks) {
+            statusCounts.add(chunk.statusCounts);
+        }
+        return statusCounts;
+    }
+
+    /**
+     * Shuts down the pool of the decoder if it created one; a caller supplied or common pool is
+     * left running
+     */
+    @Override
+    public void close() {
+        if (ownsPool) pool.shutdown();
+    }
+
+    private Chunk countChunk(CharSequence[] dateCodes, int offset, int length, long referenceEpochMillis,
+                             byte[] candidateCounts) {
+        Chunk chunk = new Chunk(length);
+        long[] scratch = null;
+
+        for (int i = 0; i < length; i++) {
+            CharSequence dateCode = dateCodes[offset + i];
+            int codeIndex = builder.getCodeIndex(dateCode);
+            chunk.codeIndexes[i] = codeIndex;
+            if (codeIndex < 0) {
+                // Malformed codes are classified rather than thrown
+                chunk.statusCounts.increment(builder.getDecodeStatus(dateCode));
+                continue;
+            }
+
+            int count = candidateCounts[codeIndex];
+            if (count == UNKNOWN_COUNT) {
+                if (scratch == null) scratch = new long[builder.getMaxCandidateCount()];
+                count = builder.getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, scratch, 0);
+                candidateCounts[codeIndex] = (byte) count;
+            }
+            chunk.total += count;
+            chunk.statusCounts.increment(DecodeStatus.OK);
+        }
+        return chunk;
+    }
+
+    /**
+     * Code indexes and candidate total of one chunk of the input
+     */
+    private static final class Chunk {
+        private final int[] codeIndexes;
+        private final DecodeStatusCounts statusCounts = new DecodeStatusCounts();
+        private long total;
+        private int base;
+
+        private Chunk(int length) {
+            codeIndexes = new int[length];
+        }
+    }
+
+    /**
+     * Runs an action for a range of chunk numbers, splitting the range in halves
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        private ChunkTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) action.accept(from);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, action), new ChunkTask(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,803 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * Date code builder compiled from a pattern.
+ *
+ * A pattern is a run of fixed width fields:
+ * <ul>
+ *     <li>{@code H} hour as one character of a 24 character alphabet, by default
+ *     {@code H{A-Z minus I,O}} as used for air conveyance</li>
+ *     <li>{@code hh} hour as two digits (00 - 23)</li>
+ *     <li>{@code Y} to {@code YYYY} last digits of the year</li>
+ *     <li>{@code DDD} day of year (001 - 366)</li>
+ *     <li>{@code DD} last two digits of the day of year</li>
+ *     <li>{@code WW} week of year (01 - 53), counting seven day weeks from January 1</li>
+ *     <li>{@code 'text'} and any character other than a letter are copied literally</li>
+ * </ul>
+ * Every pattern has exactly one day field. Codes are decoded to the matching dates from the same
+ * date one period of the year digits (one year without them) before the current time through
+ * the current time, oldest first, the same window the air conveyance builder uses.
+ * Patterns with an hour field have hour resolution.
+ *
+ * Every code is rendered into a table when the pattern is compiled, so encoding is a table
+ * lookup and validation a single pass over lookup tables, as in the built in builders.
+ */
+public final class PatternDateCodeBuilder implements DateCodeBuilder {
+    private static final String DEFAULT_HOUR_ALPHABET = "A-Z minus I,O";
+    private static final int HOURS_PER_DAY = 24;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int WEEKS_PER_YEAR = 53;
+
+    // Largest code space rendered into a table
+    private static final int MAX_CODE_SPACE_SIZE = 1 << 20;
+
+    private static final int LITERAL = 0;
+    private static final int HOUR_LETTER = 1;
+    private static final int HOUR_DIGITS = 2;
+    private static final int YEAR = 3;
+    private static final int DAY_OF_YEAR = 4;
+    private static final int DAY_DIGITS = 5;
+    private static final int WEEK = 6;
+
+    private static final DecodeStatus[] STATUSES = DecodeStatus.values();
+
+    private final String pattern;
+    private final Clock clock;
+    private final ZoneOffsets offsets;
+
+    // Fields in pattern order; the code index is their values in mixed radix, first field most significant
+    private final int[] fieldKinds;
+    private final int[] fieldStarts;
+    private final int[] fieldWidths;
+    private final int[] fieldRadixes;
+    private final int[] fieldDivisors;
+    private final char[] literals;
+    private final int codeLength;
+
+    private final int hourField;
+    private final int yearField;
+    private final int dayField;
+    private final int yearPeriod;
+
+    private final char[] hourAlphabet;
+    private final byte[] hourIndex;
+    private final int[][] daysOfYearByValue;
+    private final int maxCandidateCount;
+
+    private final String[] codeTable;
+    private final byte[] codeBytes;
+
+    private PatternDateCodeBuilder(Fields fields, Clock clock) {
+        this.pattern = fields.pattern;
+        this.clock = clock;
+        this.offsets = ZoneOffsets.of(clock.getZone());
+
+        int fieldCount = fields.kinds.length;
+        this.fieldKinds = fields.kinds;
+        this.fieldStarts = fields.starts;
+        this.fieldWidths = fields.widths;
+        this.literals = fields.literals;
+        this.codeLength = literals.length;
+        this.hourField = fields.hour;
+        this.yearField = fields.year;
+        this.dayField = fields.day;
+
+        // Each field contributes its number of values to the code space
+        this.fieldRadixes = new int[fieldCount];
+        long codeSpaceSize = 1;
+        for (int field = 0; field < fieldCount; field++) {
+            fieldRadixes[field] = radix(fieldKinds[field], fieldWidths[field]);
+            codeSpaceSize *= fieldRadixes[field];
+            if (codeSpaceSize > MAX_CODE_SPACE_SIZE) throw new IllegalArgumentException("too many codes in pattern: " + pattern);
+        }
+        this.fieldDivisors = new int[fieldCount];
+        for (int field = fieldCount - 1, divisor = 1; field >= 0; divisor *= fieldRadixes[field--]) {
+            fieldDivisors[field] = divisor;
+        }
+        this.yearPeriod = yearField < 0 ? 1 : fieldRadixes[yearField];
+
+        this.hourAlphabet = parseHourAlphabet(fields.alphabetSpec);
+        this.hourIndex = buildHourIndex(hourAlphabet);
+        this.daysOfYearByValue = buildDaysOfYear(fieldKinds[dayField], fieldRadixes[dayField]);
+
+        // The window spans one period, so a day can match in both the first and the last year
+        int maxDays = 0;
+        for (int[] days : daysOfYearByValue) {
+            maxDays = Math.max(maxDays, days.length);
+        }
+        this.maxCandidateCount = maxDays * 2;
+
+        this.codeTable = buildCodeTable((int) codeSpaceSize);
+        this.codeBytes = DateCodeTables.toAscii(codeTable, codeLength);
+    }
+
+    /**
+     * Compiles a pattern that reads the current time from the system clock
+     *
+     * Patterns with an hour field work in GMT, as the air conveyance builder does; others work
+     * in the system default time zone.
+     *
+     * @param pattern pattern such as {@code H{A-Z minus I,O}DD} or {@code YYWW}
+     * @return compiled builder
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static PatternDateCodeBuilder compile(String pattern) {
+        Fields fields = new Fields(pattern);
+        return new PatternDateCodeBuilder(fields, fields.hour < 0 ? Clock.systemDefaultZone() : Clock.systemUTC());
+    }
+
+    /**
+     * Compiles a pattern
+     *
+     * @param pattern pattern such as {@code H{A-Z minus I,O}DD} or {@code YYWW}
+     * @param clock source of the current time; its time zone is the one codes are generated
+     *              and resolved in
+     * @return compiled builder
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static PatternDateCodeBuilder compile(String pattern, Clock clock) {
+        return new PatternDateCodeBuilder(new Fields(pattern), clock);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String getCode(Calendar calendar) {
+        return codeTable[getCodeIndex(calendar.get(Calendar.YEAR), calendar.get(Calendar.DAY_OF_YEAR),
+                calendar.get(Calendar.HOUR_OF_DAY))];
+    }
+
+    @Override
+    public String getCode(ZonedDateTime dateTime) {
+        return codeTable[getCodeIndex(dateTime.getYear(), dateTime.getDayOfYear(), dateTime.getHour())];
+    }
+
+    @Override
+    public String getCodeForEpochDay(long epochDay) {
+        return codeTable[getCodeIndexForEpochDay(epochDay, 0)];
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis) {
+        return codeTable[getCodeIndexForEpochMillis(epochMillis)];
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis, ZoneId zone) {
+        return codeTable[getCodeIndexForLocalMillis(ZoneOffsets.of(zone).toLocalMillis(epochMillis))];
+    }
+
+    @Override
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(codeBytes, getCodeIndexForEpochMillis(epochMillis[offset + i]) * codeLength,
+                    destination, destinationOffset + i * codeLength, codeLength);
+        }
+        return length * codeLength;
+    }
+
+    @Override
+    public int encodeEpochDays(long[] epochDays, int offset, int length, byte[] destination,
+                               int destinationOffset) {
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(codeBytes, getCodeIndexForEpochDay(epochDays[offset + i], 0) * codeLength,
+                    destination, destinationOffset + i * codeLength, codeLength);
+        }
+        return length * codeLength;
+    }
+
+    @Override
+    public List<ZonedDateTime> getDateTimesForCode(String dateCode) {
+        return getDateTimesForCodeIndex(requireCodeIndex(dateCode), clock.millis());
+    }
+
+    @Override
+    public List<ZonedDateTime> getDateTimesForCode(String dateCode, Instant reference) {
+        return getDateTimesForCodeIndex(requireCodeIndex(dateCode), reference.toEpochMilli());
+    }
+
+    @Override
+    public long[] getEpochDaysForCode(String dateCode) {
+        return getEpochDays(requireCodeIndex(dateCode), clock.millis());
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(CharSequence dateCode) {
+        return toStatus(scan(dateCode, null, null, 0, dateCode.length()));
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(ByteBuffer source, int index, int length) {
+        return toStatus(scan(null, source, null, index, length));
+    }
+
+    @Override
+    public int getEpochDaysForCode(ByteBuffer source, int index, int length, long[] destination,
+                                   int destinationOffset) {
+        return getEpochDaysForCodeIndex(requireCodeIndex(scan(null, source, null, index, length)), clock.millis(),
+                destination, destinationOffset);
+    }
+
+    @Override
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= codeTable.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+
+        return findEpochDays(codeIndex, referenceEpochMillis, destination, null, destinationOffset);
+    }
+
+    @Override
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, int[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= codeTable.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+
+        return findEpochDays(codeIndex, referenceEpochMillis, null, destination, destinationOffset);
+    }
+
+    @Override
+    public int getEpochHoursForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                         int destinationOffset) {
+        int count = getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, destination, destinationOffset);
+        int hour = getFieldValue(codeIndex, hourField);
+        for (int i = destinationOffset; i < destinationOffset + count; i++) {
+            destination[i] = destination[i] * 24 + hour;
+        }
+        return count;
+    }
+
+    @Override
+    public Spliterator<ZonedDateTime> getCandidateSpliterator(String dateCode, Instant from, Instant to,
+                                                              CandidateOrder order) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        if (from.isAfter(to)) throw new IllegalArgumentException("range ends before it starts");
+
+        return getCandidateSpliterator(codeIndex, from.toEpochMilli(), to.toEpochMilli(), order);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> getMostRecentCandidate(String dateCode, Instant reference) {
+        // Every code repeats at least once every period of the year digits
+        Instant from = reference.minus((yearPeriod + 1) * 366L, ChronoUnit.DAYS);
+        return getCandidates(dateCode, from, reference, CandidateOrder.NEWEST_FIRST).findFirst();
+    }
+
+    @Override
+    public int getMaxCandidateCount() {
+        return maxCandidateCount;
+    }
+
+    @Override
+    public int getCodeSpaceSize() {
+        return codeTable.length;
+    }
+
+    @Override
+    public int getCodeIndex(CharSequence dateCode) {
+        return Math.max(scan(dateCode, null, null, 0, dateCode.length()), -1);
+    }
+
+    @Override
+    public int getCodeIndex(ByteBuffer source, int index, int length) {
+        return Math.max(scan(null, source, null, index, length), -1);
+    }
+
+    @Override
+    public int getCodeIndex(byte[] source, int offset, int length) {
+        return Math.max(scan(null, null, source, offset, length), -1);
+    }
+
+    @Override
+    public String getCodeAt(int codeIndex) {
+        if (codeIndex < 0 || codeIndex >= codeTable.length) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+        return codeTable[codeIndex];
+    }
+
+    @Override
+    public ChronoUnit getResolution() {
+        return hourField < 0 ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public String toString() {
+        return "PatternDateCodeBuilder[" + pattern + "]";
+    }
+
+    /**
+     * Reads a code, checking every character against the lookup tables
+     *
+     * @param text code as characters, or null to read {@code bytes} or {@code array}
+     * @param bytes code as ASCII bytes (read with absolute gets), or null to read {@code array}
+     * @param array code as ASCII bytes in an array
+     * @param index index of the first character
+     * @param length number of characters
+     * @return code index, or {@code -1 - status.ordinal()} if the code is malformed
+     */
+    private int scan(CharSequence text, ByteBuffer bytes, byte[] array, int index, int length) {
+        if (length != codeLength) return -1 - DecodeStatus.BAD_LENGTH.ordinal();
+
+        int codeIndex = 0;
+        for (int field = 0; field < fieldKinds.length; field++) {
+            int start = index + fieldStarts[field];
+            int kind = fieldKinds[field];
+            int value;
+
+            if (kind == LITERAL) {
+                if (charAt(text, bytes, array, start) != literals[fieldStarts[field]]) {
+                    return -1 - DecodeStatus.BAD_LITERAL.ordinal();
+                }
+                continue;
+            } else if (kind == HOUR_LETTER) {
+                int c = charAt(text, bytes, array, start);
+                value = c < hourIndex.length ? hourIndex[c] : -1;
+                if (value < 0) return -1 - DecodeStatus.BAD_HOUR_LETTER.ordinal();
+            } else {
+                value = 0;
+                for (int i = 0; i < fieldWidths[field]; i++) {
+                    int c = charAt(text, bytes, array, start + i);
+                    int digit = c < 128 ? DateCodeTables.digit((char) c) : -1;
+                    if (digit < 0) return -1 - DecodeStatus.NON_NUMERIC.ordinal();
+                    value = value * 10 + digit;
+                }
+
+                // Days and weeks count from 1 in the code but from 0 in the code index
+                if (kind == DAY_OF_YEAR || kind == WEEK) value--;
+                if (value < 0 || value >= fieldRadixes[field]) {
+                    DecodeStatus status = kind == DAY_OF_YEAR ? DecodeStatus.DAY_OUT_OF_RANGE
+                            : DecodeStatus.FIELD_OUT_OF_RANGE;
+                    return -1 - status.ordinal();
+                }
+            }
+            codeIndex = codeIndex * fieldRadixes[field] + value;
+        }
+        return codeIndex;
+    }
+
+    private static int charAt(CharSequence text, ByteBuffer bytes, byte[] array, int index) {
+        if (text != null) return text.charAt(index);
+        return (bytes != null ? bytes.get(index) : array[index]) & 0xFF;
+    }
+
+    private static DecodeStatus toStatus(int scanned) {
+        return scanned >= 0 ? DecodeStatus.OK : STATUSES[-1 - scanned];
+    }
+
+    private int requireCodeIndex(String dateCode) {
+        return requireCodeIndex(scan(dateCode, null, null, 0, dateCode.length()));
+    }
+
+    /**
+     * Throws the exceptions of the built in decoders for malformed codes
+     */
+    private static int requireCodeIndex(int scanned) {
+        if (scanned >= 0) return scanned;
+
+        DecodeStatus status = toStatus(scanned);
+        if (status == DecodeStatus.NON_NUMERIC) throw new NumberFormatException("non-numeric date code");
+        throw new IllegalArgumentException("malformed date code: " + status);
+    }
+
+    private int getCodeIndexForEpochMillis(long epochMillis) {
+        return getCodeIndexForLocalMillis(offsets.toLocalMillis(epochMillis));
+    }
+
+    private int getCodeIndexForLocalMillis(long localMillis) {
+        long epochDay = Math.floorDiv(localMillis, EpochDays.MILLIS_PER_DAY);
+        return getCodeIndexForEpochDay(epochDay, (int) (Math.floorMod(localMillis, EpochDays.MILLIS_PER_DAY)
+                / EpochDays.MILLIS_PER_HOUR));
+    }
+
+    private int getCodeIndexForEpochDay(long epochDay, int hour) {
+        long year = EpochDays.year(epochDay);
+        return getCodeIndex(year, (int) (epochDay - EpochDays.firstDayOfYear(year)) + 1, hour);
+    }
+
+    private int getCodeIndex(long year, int dayOfYear, int hour) {
+        int codeIndex = 0;
+        for (int field = 0; field < fieldKinds.length; field++) {
+            int value;
+            switch (fieldKinds[field]) {
+                case LITERAL:
+                    continue;
+                case HOUR_LETTER:
+                case HOUR_DIGITS:
+                    value = hour;
+                    break;
+                case YEAR:
+                    value = (int) Math.floorMod(year, (long) fieldRadixes[field]);
+                    break;
+                case DAY_OF_YEAR:
+                    value = dayOfYear - 1;
+                    break;
+                case DAY_DIGITS:
+                    value = dayOfYear % 100;
+                    break;
+                default:
+                    value = (dayOfYear - 1) / DAYS_PER_WEEK;
+                    break;
+            }
+            codeIndex = codeIndex * fieldRadixes[field] + value;
+        }
+        return codeIndex;
+    }
+
+    /**
+     * Gets the value of one field of a code index
+     *
+     * @return value, or 0 if the pattern has no such field ({@code field < 0})
+     */
+    private int getFieldValue(int codeIndex, int field) {
+        return field < 0 ? 0 : codeIndex / fieldDivisors[field] % fieldRadixes[field];
+    }
+
+    /**
+     * Splits a code index back into the value of each field
+     */
+    private int[] getFieldValues(int codeIndex) {
+        int[] values = new int[fieldKinds.length];
+        for (int field = fieldKinds.length - 1; field >= 0; field--) {
+            if (fieldKinds[field] == LITERAL) continue;
+            values[field] = codeIndex % fieldRadixes[field];
+            codeIndex /= fieldRadixes[field];
+        }
+        return values;
+    }
+
+    private long[] getEpochDays(int codeIndex, long referenceEpochMillis) {
+        long[] epochDays = new long[maxCandidateCount];
+        return Arrays.copyOf(epochDays, getEpochDaysForCodeIndex(codeIndex, referenceEpochMillis, epochDays, 0));
+    }
+
+    private List<ZonedDateTime> getDateTimesForCodeIndex(int codeIndex, long referenceEpochMillis) {
+        long[] epochDays = new long[maxCandidateCount];
+        int count = findEpochDays(codeIndex, referenceEpochMillis, epochDays, null, 0);
+
+        int hour = getFieldValue(codeIndex, hourField);
+        List<ZonedDateTime> dateTimes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dateTimes.add(LocalDate.ofEpochDay(epochDays[i]).atStartOfDay(getZone()).plusHours(hour));
+        }
+        return dateTimes;
+    }
+
+    /**
+     * Finds the candidate days from the same date one period of the year digits before the
+     * reference date through the reference instant, oldest first, the window the air conveyance
+     * builder uses
+     *
+     * The hour of a candidate on the reference date is compared in local time.
+     *
+     * @param destination receives the candidates, or null to write them to {@code intDestination}
+     * @param intDestination receives the candidates when {@code destination} is null
+     * @return number of candidates written
+     */
+    private int findEpochDays(int codeIndex, long referenceEpochMillis, long[] destination, int[] intDestination,
+                              int destinationOffset) {
+        long localMillis = offsets.toLocalMillis(referenceEpochMillis);
+        long today = Math.floorDiv(localMillis, EpochDays.MILLIS_PER_DAY);
+        long firstDay = EpochDays.minusYears(today, yearPeriod);
+        int hour = getFieldValue(codeIndex, hourField);
+        long lastDay = hour <= Math.floorMod(localMillis, EpochDays.MILLIS_PER_DAY) / EpochDays.MILLIS_PER_HOUR
+                ? today : today - 1;
+
+        // Only years matching the year digits, of which the window touches at most two
+        long year = EpochDays.year(firstDay);
+        year += Math.floorMod(getFieldValue(codeIndex, yearField) - year, (long) yearPeriod);
+
+        int count = 0;
+        int[] daysOfYear = daysOfYearByValue[getFieldValue(codeIndex, dayField)];
+        for (long lastYear = EpochDays.year(lastDay); year <= lastYear; year += yearPeriod) {
+            long firstDayOfYear = EpochDays.firstDayOfYear(year);
+            int lengthOfYear = EpochDays.lengthOfYear(year);
+
+            for (int dayOfYear : daysOfYear) {
+                long epochDay = firstDayOfYear + dayOfYear - 1;
+                if (dayOfYear <= lengthOfYear && epochDay >= firstDay && epochDay <= lastDay) {
+                    if (destination != null) {
+                        destination[destinationOffset + count++] = epochDay;
+                    } else {
+                        intDestination[destinationOffset + count++] = (int) epochDay;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private Spliterator<ZonedDateTime> getCandidateSpliterator(int codeIndex, long fromMillis, long toMillis,
+                                                               CandidateOrder order) {
+        int yearResidue = getFieldValue(codeIndex, yearField);
+        int hour = getFieldValue(codeIndex, hourField);
+        return new CandidateSpliterator(fromMillis, toMillis, getZone(), yearPeriod, yearResidue,
+                daysOfYearByValue[getFieldValue(codeIndex, dayField)], hour, false, order);
+    }
+
+    private String[] buildCodeTable(int codeSpaceSize) {
+        String[] codes = new String[codeSpaceSize];
+        char[] code = literals.clone();
+        for (int codeIndex = 0; codeIndex < codeSpaceSize; codeIndex++) {
+            int[] values = getFieldValues(codeIndex);
+            for (int field = 0; field < fieldKinds.length; field++) {
+                int kind = fieldKinds[field];
+                if (kind == LITERAL) continue;
+
+                if (kind == HOUR_LETTER) {
+                    code[fieldStarts[field]] = hourAlphabet[values[field]];
+                } else {
+                    int value = kind == DAY_OF_YEAR || kind == WEEK ? values[field] + 1 : values[field];
+                    for (int i = fieldWidths[field] - 1; i >= 0; i--) {
+                        code[fieldStarts[field] + i] = (char) ('0' + value % 10);
+                        value /= 10;
+                    }
+                }
+            }
+            codes[codeIndex] = new String(code);
+        }
+        return codes;
+    }
+
+    private static int fieldKind(char c, int width, String pattern) {
+        if (c == 'h' && width == 2) return HOUR_DIGITS;
+        if (c == 'Y' && width <= 4) return YEAR;
+        if (c == 'D' && width == 3) return DAY_OF_YEAR;
+        if (c == 'D' && width == 2) return DAY_DIGITS;
+        if (c == 'W' && width == 2) return WEEK;
+        throw new IllegalArgumentException("unsupported field width " + width + " for '" + c + "' in pattern: "
+                + pattern);
+    }
+
+    private static int radix(int kind, int width) {
+        switch (kind) {
+            case LITERAL:
+                return 1;
+            case HOUR_LETTER:
+            case HOUR_DIGITS:
+                return HOURS_PER_DAY;
+            case YEAR:
+                return (int) Math.pow(10, width);
+            case DAY_OF_YEAR:
+                return DateCodeTables.MAX_DAY_OF_YEAR;
+            case DAY_DIGITS:
+                return 100;
+            default:
+                return WEEKS_PER_YEAR;
+        }
+    }
+
+    private static int checkUnique(int existing, int field, String name, String pattern) {
+        if (existing >= 0) throw new IllegalArgumentException("more than one " + name + " field in pattern: " + pattern);
+        return field;
+    }
+
+    /**
+     * Parses an hour alphabet such as {@code A-Z minus I,O} or {@code ABCDEFGHJKLMNPQRSTUVWXYZ}
+     */
+    private static char[] parseHourAlphabet(String spec) {
+        String[] parts = spec.split(" minus ", 2);
+        StringBuilder alphabet = new StringBuilder();
+        for (String item : parts[0].split(",")) {
+            item = item.trim();
+            if (item.length() == 3 && item.charAt(1) == '-') {
+                for (char c = item.charAt(0); c <= item.charAt(2); c++) alphabet.append(c);
+            } else {
+                alphabet.append(item);
+            }
+        }
+        if (parts.length > 1) {
+            for (String excluded : parts[1].split(",")) {
+                excluded = excluded.trim();
+                if (excluded.length() != 1) throw new IllegalArgumentException("invalid hour alphabet: " + spec);
+                int index = alphabet.indexOf(excluded);
+                if (index >= 0) alphabet.deleteCharAt(index);
+            }
+        }
+
+        char[] chars = alphabet.toString().toCharArray();
+        if (chars.length != HOURS_PER_DAY) {
+            throw new IllegalArgumentException("hour alphabet must have 24 characters: " + spec);
+        }
+        for (char c : chars) {
+            if (c > 127 || Character.isDigit(c) || alphabet.indexOf(String.valueOf(c)) != alphabet.lastIndexOf(String.valueOf(c))) {
+                throw new IllegalArgumentException("hour alphabet must have 24 distinct ASCII characters: " + spec);
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Maps ASCII characters to hour indexes, accepting either case of letters unless both are in the alphabet
+     */
+    private static byte[] buildHourIndex(char[] alphabet) {
+        byte[] index = new byte[128];
+        Arrays.fill(index, (byte) -1);
+        for (int i = 0; i < alphabet.length; i++) {
+            index[alphabet[i]] = (byte) i;
+        }
+        for (int i = 0; i < alphabet.length; i++) {
+            char other = Character.isUpperCase(alphabet[i]) ? Character.toLowerCase(alphabet[i])
+                    : Character.toUpperCase(alphabet[i]);
+            if (index[other] < 0) index[other] = (byte) i;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the days of year each value of the day field matches
+     */
+    private static int[][] buildDaysOfYear(int kind, int radix) {
+        int[][] days = new int[radix][];
+        for (int value = 0; value < radix; value++) {
+            if (kind == DAY_OF_YEAR) {
+                days[value] = new int[]{value + 1};
+            } else if (kind == WEEK) {
+                int firstDay = value * DAYS_PER_WEEK + 1;
+                days[value] = new int[Math.min(DAYS_PER_WEEK, DateCodeTables.MAX_DAY_OF_YEAR - firstDay + 1)];
+                for (int i = 0; i < days[value].length; i++) {
+                    days[value][i] = firstDay + i;
+                }
+            } else {
+                // Every day of year ending in the two digits
+                int firstDay = value == 0 ? 100 : value;
+                days[value] = new int[(DateCodeTables.MAX_DAY_OF_YEAR - firstDay) / 100 + 1];
+                for (int i = 0; i < days[value].length; i++) {
+                    days[value][i] = firstDay + i * 100;
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Fields of a pattern, parsed before the builder is constructed so that the time zone can
+     * depend on them
+     */
+    private static final class Fields {
+        final String pattern;
+        final int[] kinds;
+        final int[] starts;
+        final int[] widths;
+        final char[] literals;
+        final String alphabetSpec;
+        final int hour;
+        final int year;
+        final int day;
+
+        Fields(String pattern) {
+            int[] kinds = new int[pattern.length()];
+            int[] starts = new int[pattern.length()];
+            int[] widths = new int[pattern.length()];
+            StringBuilder literalText = new StringBuilder();
+            String alphabetSpec = DEFAULT_HOUR_ALPHABET;
+            int fieldCount = 0;
+            int hour = -1;
+            int year = -1;
+            int day = -1;
+
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                int kind;
+                int width;
+                if (c == '\'') {
+                    int end = pattern.indexOf('\'', i + 1);
+                    if (end < 0) throw new IllegalArgumentException("unterminated quote in pattern: " + pattern);
+                    for (int j = i + 1; j < end; j++) {
+                        starts[fieldCount] = literalText.length();
+                        kinds[fieldCount] = LITERAL;
+                        widths[fieldCount++] = 1;
+                        literalText.append(pattern.charAt(j));
+                    }
+                    i = end + 1;
+                    continue;
+                } else if (c == 'H') {
+                    kind = HOUR_LETTER;
+                    width = 1;
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '{') {
+                        int end = pattern.indexOf('}', i + 2);
+                        if (end < 0) {
+                            throw new IllegalArgumentException("unterminated hour alphabet in pattern: " + pattern);
+                        }
+                        alphabetSpec = pattern.substring(i + 2, end);
+                        i = end + 1;
+                    } else {
+                        i++;
+                    }
+                } else if (c == 'h' || c == 'Y' || c == 'D' || c == 'W') {
+                    int end = i;
+                    while (end < pattern.length() && pattern.charAt(end) == c) end++;
+                    width = end - i;
+                    i = end;
+                    kind = fieldKind(c, width, pattern);
+                } else if (Character.isLetter(c) || c > 127) {
+                    throw new IllegalArgumentException("unknown pattern character '" + c + "' in pattern: " + pattern);
+                } else {
+                    kind = LITERAL;
+                    width = 1;
+                    i++;
+                }
+
+                if (kind == LITERAL) {
+                    starts[fieldCount] = literalText.length();
+                    literalText.append(c);
+                } else {
+                    starts[fieldCount] = literalText.length();
+                    for (int j = 0; j < width; j++) literalText.append('\0');
+                    if (kind == HOUR_LETTER || kind == HOUR_DIGITS) {
+                        hour = checkUnique(hour, fieldCount, "hour", pattern);
+                    }
+                    if (kind == YEAR) year = checkUnique(year, fieldCount, "year", pattern);
+                    if (kind >= DAY_OF_YEAR) day = checkUnique(day, fieldCount, "day", pattern);
+                }
+                kinds[fieldCount] = kind;
+                widths[fieldCount++] = width;
+            }
+            if (day < 0) throw new IllegalArgumentException("pattern has no day field: " + pattern);
+
+            this.pattern = pattern;
+            this.kinds = Arrays.copyOf(kinds, fieldCount);
+            this.starts = Arrays.copyOf(starts, fieldCount);
+            this.widths = Arrays.copyOf(widths, fieldCount);
+            this.literals = literalText.toString().toCharArray();
+            this.alphabetSpec = alphabetSpec;
+            this.hour = hour;
+            this.year = year;
+            this.day = day;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Span from one hour or day boundary of a builder to the next, in the time zone of the builder.
+ *
+ * Hours are truncated in local time, so zones offset from UTC by a fraction of an hour roll
+ * over on their own hour boundaries rather than on those of UTC.
+ */
+final class ResolutionPeriod {
+    private final long startMillis;
+    private final long endMillis;
+
+    private ResolutionPeriod(long startMillis, long endMillis) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * Gets the hour or day, per the resolution of the builder, that contains an instant
+     */
+    static ResolutionPeriod of(DateCodeBuilder builder, long epochMillis) {
+        ZoneId zone = builder.getZone();
+        ZonedDateTime dateTime = Instant.ofEpochMilli(epochMillis).atZone(zone);
+        ZonedDateTime start;
+        ZonedDateTime end;
+        if (builder.getResolution() == ChronoUnit.HOURS) {
+            start = dateTime.truncatedTo(ChronoUnit.HOURS);
+            end = start.plusHours(1);
+        } else {
+            start = dateTime.toLocalDate().atStartOfDay(zone);
+            end = dateTime.toLocalDate().plusDays(1).atStartOfDay(zone);
+        }
+        return new ResolutionPeriod(start.toInstant().toEpochMilli(), end.toInstant().toEpochMilli());
+    }
+
+    long getStartMillis() {
+        return startMillis;
+    }
+
+    long getEndMillis() {
+        return endMillis;
+    }
+
+    boolean contains(long epochMillis) {
+        return epochMillis >= startMillis && epochMillis < endMillis;
+    }
+}
@@ -0,0 +1,429 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative row ids.
+ *
+ * Ids are grouped by their upper 16 bits. Each group holds its lower 16 bits either in a
+ * sorted array, while it has at most 4096 members, or in a 65536 bit bitmap once it grows
+ * past that, so sparse and dense groups both stay small. Not safe for use by multiple
+ * threads without external synchronization.
+ */
+public final class RowBitmap {
+    private static final int ARRAY_CONTAINER_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Adds a row id
+     *
+     * @param rowId id to add
+     * @return true if the id was not already present
+     * @throws IllegalArgumentException if the id is negative
+     */
+    public boolean add(int rowId) {
+        if (rowId < 0) throw new IllegalArgumentException("negative row id: " + rowId);
+
+        char key = high(rowId);
+        int index = findContainer(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        containers[index] = container.add(low(rowId));
+        return containers[index].cardinality > cardinality;
+    }
+
+    /**
+     * Removes a row id
+     *
+     * @param rowId id to remove
+     * @return true if the id was present
+     */
+    public boolean remove(int rowId) {
+        if (rowId < 0) return false;
+
+        int index = findContainer(high(rowId));
+        if (index < 0) return false;
+
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        container = container.remove(low(rowId));
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+        return container.cardinality < cardinality;
+    }
+
+    public boolean contains(int rowId) {
+        if (rowId < 0) return false;
+
+        int index = findContainer(high(rowId));
+        return index >= 0 && containers[index].contains(low(rowId));
+    }
+
+    /**
+     * @return number of row ids in the set
+     */
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds every row id of another set to this one
+     *
+     * @param other set to merge in (unchanged)
+     */
+    public void or(RowBitmap other) {
+        int missing = 0;
+        for (int i = 0, j = 0; j < other.size; ) {
+            if (i == size || other.keys[j] < keys[i]) {
+                missing++;
+                j++;
+            } else if (keys[i] < other.keys[j]) {
+                i++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        if (size + missing > keys.length) {
+            int capacity = Math.max(keys.length * 2, size + missing);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+
+        // Merge from the back so the containers of this set move at most once
+        int i = size - 1;
+        int j = other.size - 1;
+        for (int merged = size + missing - 1; j >= 0; merged--) {
+            if (i >= 0 && keys[i] > other.keys[j]) {
+                keys[merged] = keys[i];
+                containers[merged] = containers[i--];
+            } else if (i < 0 || other.keys[j] > keys[i]) {
+                // Containers are never shared between sets, as they are changed in place
+                keys[merged] = other.keys[j];
+                containers[merged] = other.containers[j--].copy();
+            } else {
+                keys[merged] = keys[i];
+                containers[merged] = containers[i--].orInto(other.containers[j--]);
+            }
+        }
+        size += missing;
+    }
+
+    /**
+     * Passes every row id to an action, in ascending order
+     *
+     * @param action action to run for each id
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return row ids in ascending order
+     */
+    public int[] toArray() {
+        int[] rowIds = new int[Math.toIntExact(getCardinality())];
+        int[] position = new int[1];
+        forEach(rowId -> rowIds[position[0]++] = rowId);
+        return rowIds;
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap[" + getCardinality() + " rows]";
+    }
+
+    private int findContainer(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(size * 2, 4));
+            containers = Arrays.copyOf(containers, Math.max(size * 2, 4));
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static char high(int rowId) {
+        return (char) (rowId >>> 16);
+    }
+
+    private static char low(int rowId) {
+        return (char) rowId;
+    }
+
+    /**
+     * Lower 16 bits of the row ids sharing one upper 16 bits
+     */
+    private abstract static class Container {
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        /**
+         * Adds the values of another container to this one, changing this one in place
+         *
+         * @return this container, or the container that replaces it
+         */
+        abstract Container orInto(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int base, IntConsumer action);
+    }
+
+    /**
+     * Sorted values of a sparse group
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+
+        private ArrayContainer() {
+            values = new char[4];
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) return this;
+
+            if (cardinality == ARRAY_CONTAINER_LIMIT) return toBitmap().add(value);
+
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), ARRAY_CONTAINER_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) return this;
+
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container orInto(Container other) {
+            int otherCardinality = other.cardinality;
+            if (other instanceof BitmapContainer || cardinality + otherCardinality > ARRAY_CONTAINER_LIMIT) {
+                return toBitmap().orInto(other);
+            }
+
+            char[] otherValues = ((ArrayContainer) other).values;
+            int total = cardinality + otherCardinality;
+            if (total > values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(values.length * 2, total), ARRAY_CONTAINER_LIMIT));
+            }
+
+            // Merge from the back into the free space, then close the gap left by duplicates
+            int i = cardinality - 1;
+            int j = otherCardinality - 1;
+            int merged = total - 1;
+            while (j >= 0) {
+                if (i >= 0 && values[i] > otherValues[j]) {
+                    values[merged--] = values[i--];
+                } else if (i >= 0 && values[i] == otherValues[j]) {
+                    values[merged--] = values[i--];
+                    j--;
+                } else {
+                    values[merged--] = otherValues[j--];
+                }
+            }
+            int duplicates = merged - i;
+            if (duplicates > 0) {
+                System.arraycopy(values, merged + 1, values, i + 1, total - merged - 1);
+            }
+            cardinality = total - duplicates;
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS]);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    /**
+     * One bit per value of a dense group
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+
+        private BitmapContainer(long[] words) {
+            this.words = words;
+        }
+
+        @Override
+        Container add(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) == 0) {
+                words[value >>> 6] = word | bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) == 0) return this;
+
+            words[value >>> 6] = word & ~bit;
+            cardinality--;
+            return cardinality <= ARRAY_CONTAINER_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container orInto(Container other) {
+            if (other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    long added = otherWords[i] & ~words[i];
+                    if (added != 0) {
+                        words[i] |= added;
+                        cardinality += Long.bitCount(added);
+                    }
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    add(array.values[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer(words.clone());
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
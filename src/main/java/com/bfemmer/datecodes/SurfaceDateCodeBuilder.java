@@ -23,44 +23,219 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
+import java.util.Spliterator;
 
 /**
  * Created by bfemmer on 6/7/2016.
  */
 public class SurfaceDateCodeBuilder implements DateCodeBuilder {
-    private static SurfaceDateCodeBuilder instance = null;
+
+    private static final int CODE_LENGTH = 3;
+
+    /**
+     * ASCII bytes of every Julian day code, {@value #CODE_LENGTH} per day of year
+     */
+    private static final byte[] CODE_BYTES = DateCodeTables.julianDayBytes();
     
+    // Created last, once every table above is initialized
+    private static final SurfaceDateCodeBuilder INSTANCE = new SurfaceDateCodeBuilder();
+
+    private final Clock clock;
+    private final ZoneOffsets offsets;
+
+    /**
+     * Creates a builder that reads the current date from the system clock in the default time zone
+     */
+    public SurfaceDateCodeBuilder() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a builder that reads the current date from a clock
+     *
+     * @param clock source of the current time; its time zone is the one codes are generated
+     *              and resolved in
+     */
+    public SurfaceDateCodeBuilder(Clock clock) {
+        this.clock = clock;
+        this.offsets = ZoneOffsets.of(clock.getZone());
+    }
+
     public static SurfaceDateCodeBuilder getInstance() {
-        if (instance == null) {
-            instance = new SurfaceDateCodeBuilder();
-        }
-        
-        return instance;
+        return INSTANCE;
     }
     
     @Override
-    public String getCode() {
-        return getCode(Calendar.getInstance(Locale.getDefault()));
+    public String getCode(Calendar calendar) {
+        return generateJulianDateCode(calendar);
     }
 
     @Override
-    public String getCode(Calendar calendar) {
-        return generateJulianDateCode(calendar);
+    public String getCode(ZonedDateTime dateTime) {
+        return DateCodeTables.julianDayCode(dateTime.getDayOfYear());
+    }
+
+    @Override
+    public String getCodeForEpochDay(long epochDay) {
+        return DateCodeTables.julianDayCode(EpochDays.dayOfYear(epochDay));
+    }
+
+    @Override
+    public String getCodeForEpochMillis(long epochMillis) {
+        return getCodeForEpochDay(offsets.toEpochDay(epochMillis));
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            writeJulianDateCode(offsets.toEpochDay(epochMillis[i]), destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochMillis(long[] epochMillis, ZoneId[] zones, int offset, int length, byte[] destination,
+                                 int destinationOffset) {
+        ZoneId zone = null;
+        ZoneOffsets zoneOffsets = null;
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            // Events usually arrive in runs from one site
+            if (zones[i] != zone) {
+                zone = zones[i];
+                zoneOffsets = ZoneOffsets.of(zone);
+            }
+            writeJulianDateCode(zoneOffsets.toEpochDay(epochMillis[i]), destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public int encodeEpochDays(long[] epochDays, int offset, int length, byte[] destination,
+                               int destinationOffset) {
+        int end = offset + length;
+        for (int i = offset, target = destinationOffset; i < end; i++, target += CODE_LENGTH) {
+            writeJulianDateCode(epochDays[i], destination, target);
+        }
+        return length * CODE_LENGTH;
+    }
+
+    @Override
+    public long[] getEpochDaysForCode(String dateCode, long referenceEpochDay) {
+        // Validate length
+        if (dateCode.length() != CODE_LENGTH) throw new IllegalArgumentException("insufficient length in date code");
+
+        // If not a number, will throw a NumberFormatException
+        int dayOfYear = DateCodeTables.parseDigits(dateCode, 0, CODE_LENGTH);
+
+        return new long[]{findEpochDay(dayOfYear, referenceEpochDay)};
+    }
+
+    @Override
+    public int getEpochDaysForCode(ByteBuffer source, int index, int length, long referenceEpochDay,
+                                   long[] destination, int destinationOffset) {
+        // Validate length
+        if (length != CODE_LENGTH) throw new IllegalArgumentException("insufficient length in date code");
+
+        // If not a number, will throw a NumberFormatException
+        int dayOfYear = DateCodeTables.parseDigits(source, index, index + CODE_LENGTH);
+
+        destination[destinationOffset] = findEpochDay(dayOfYear,
+                referenceEpochDay);
+        return 1;
     }
 
     @Override
-    public List<Date> getCalendarDatesForCode(String dateCode) {
-        return getCalendarDatesForDateCode(dateCode);
+    public int getEpochDaysForCodeIndex(int codeIndex, long referenceEpochMillis, long[] destination,
+                                        int destinationOffset) {
+        if (codeIndex < 0 || codeIndex >= DateCodeTables.MAX_DAY_OF_YEAR) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+
+        destination[destinationOffset] = findEpochDay(codeIndex + 1,
+                EpochDays.fromEpochMillis(referenceEpochMillis, getZone()));
+        return 1;
     }
 
     @Override
-    public boolean isValidFormat(String dateCode) {
-        return false;
+    public Spliterator<ZonedDateTime> getCandidateSpliterator(String dateCode, Instant from, Instant to,
+                                                              CandidateOrder order) {
+        int codeIndex = getCodeIndex(dateCode);
+        if (codeIndex < 0) throw new IllegalArgumentException("malformed date code: " + dateCode);
+        if (from.isAfter(to)) throw new IllegalArgumentException("range ends before it starts");
+
+        // One day in every year
+        return new CandidateSpliterator(from.toEpochMilli(), to.toEpochMilli(), getZone(), 1, 0,
+                new int[]{codeIndex + 1}, 0, true, order);
+    }
+
+    @Override
+    public int getMaxCandidateCount() {
+        return 1;
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        return DateCodeTables.dayOfYearStatus(DateCodeTables.digit(dateCode.charAt(0)),
+                DateCodeTables.digit(dateCode.charAt(1)), DateCodeTables.digit(dateCode.charAt(2)));
+    }
+
+    @Override
+    public DecodeStatus getDecodeStatus(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return DecodeStatus.BAD_LENGTH;
+        return DateCodeTables.dayOfYearStatus(DateCodeTables.digit(source.get(index)),
+                DateCodeTables.digit(source.get(index + 1)), DateCodeTables.digit(source.get(index + 2)));
+    }
+
+    @Override
+    public int getCodeSpaceSize() {
+        return DateCodeTables.MAX_DAY_OF_YEAR;
+    }
+
+    @Override
+    public int getCodeIndex(CharSequence dateCode) {
+        if (dateCode.length() != CODE_LENGTH) return -1;
+
+        int dayOfYear = DateCodeTables.dayOfYear(dateCode, 0);
+        return dayOfYear < 0 ? -1 : dayOfYear - 1;
+    }
+
+    @Override
+    public int getCodeIndex(ByteBuffer source, int index, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int dayOfYear = DateCodeTables.dayOfYear(source, index);
+        return dayOfYear < 0 ? -1 : dayOfYear - 1;
+    }
+
+    @Override
+    public int getCodeIndex(byte[] source, int offset, int length) {
+        if (length != CODE_LENGTH) return -1;
+
+        int dayOfYear = DateCodeTables.dayOfYear(source, offset);
+        return dayOfYear < 0 ? -1 : dayOfYear - 1;
+    }
+
+    @Override
+    public String getCodeAt(int codeIndex) {
+        if (codeIndex < 0 || codeIndex >= DateCodeTables.MAX_DAY_OF_YEAR) {
+            throw new IndexOutOfBoundsException("code index " + codeIndex);
+        }
+        return DateCodeTables.julianDayCode(codeIndex + 1);
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
     }
 
     /**
@@ -73,32 +248,28 @@ public class SurfaceDateCodeBuilder implements DateCodeBuilder {
     private String generateJulianDateCode(Calendar calendar) {
         int day = calendar.get(Calendar.DAY_OF_YEAR);
 
-        // Pad the date with leading zeros
-        return String.format(Locale.getDefault(), "%03d", day);
+        // Zero padded codes are precomputed
+        return DateCodeTables.julianDayCode(day);
     }
 
-    private List<Date> getCalendarDatesForDateCode(String dateCode) {
-        List<Date> values = new ArrayList<>(); // List of dates that will get returned
-
-        // Validate length
-        if (dateCode.length() != 3) throw new IllegalArgumentException("insufficient length in date code");
-
-        // If not a number, will throw a NumberFormatException
-        Integer.parseInt(dateCode);
-
-        // Use Locale.getDefault() versus TimeZone.getTimeZone("GMT") for the calendar instance
-        // as we only care about the date. See the getCalendarDatesForAirDateCode method
-        // to see why the GMT timezone is used there.
-        Calendar calendar = Calendar.getInstance(Locale.getDefault());
-        calendar.set(Calendar.DAY_OF_YEAR, Integer.valueOf(dateCode));
-
-        // Reset hours, minutes, and seconds
-        calendar.set(Calendar.HOUR, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-
-        values.add(calendar.getTime());
+    private static void writeJulianDateCode(long epochDay, byte[] destination, int target) {
+        int source = EpochDays.dayOfYear(epochDay) * CODE_LENGTH;
+        destination[target] = CODE_BYTES[source];
+        destination[target + 1] = CODE_BYTES[source + 1];
+        destination[target + 2] = CODE_BYTES[source + 2];
+    }
 
-        return values;
+    /**
+     * Finds the day a day of year represents
+     *
+     * The day of year is applied leniently to the year of the reference date, so out of range
+     * days roll into the adjacent year.
+     *
+     * @param dayOfYear 3-digit day of year
+     * @param referenceEpochDay the day the code is resolved against
+     * @return days since January 1, 1970
+     */
+    private static long findEpochDay(int dayOfYear, long referenceEpochDay) {
+        return EpochDays.firstDayOfYear(EpochDays.year(referenceEpochDay)) + dayOfYear - 1;
     }
 }
@@ -0,0 +1,115 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Offsets of a time zone from UTC, precomputed into a sorted array of transitions.
+ *
+ * Finding the local date of an instant is a binary search over the transitions of the zone
+ * instead of a query of its {@link ZoneRules}. Transitions are computed from 1900 through
+ * 2100; instants outside that range fall back to the rules. Tables are shared per zone.
+ */
+final class ZoneOffsets {
+    private static final long FIRST_MILLIS = Instant.parse("1900-01-01T00:00:00Z").toEpochMilli();
+    private static final long END_MILLIS = Instant.parse("2101-01-01T00:00:00Z").toEpochMilli();
+
+    private static final ConcurrentMap<ZoneId, ZoneOffsets> ZONES = new ConcurrentHashMap<>();
+
+    private final ZoneRules rules;
+
+    // Offset in effect before the first transition at index 0, after transition i at index i + 1
+    private final long[] transitionMillis;
+    private final int[] offsetMillis;
+
+    private ZoneOffsets(ZoneRules rules) {
+        this.rules = rules;
+
+        long[] transitions = new long[16];
+        int[] offsets = new int[17];
+        int count = 0;
+        offsets[0] = rules.getOffset(Instant.ofEpochMilli(FIRST_MILLIS)).getTotalSeconds() * 1000;
+
+        ZoneOffsetTransition transition = rules.isFixedOffset() ? null
+                : rules.nextTransition(Instant.ofEpochMilli(FIRST_MILLIS));
+        while (transition != null && transition.toEpochSecond() * 1000L < END_MILLIS) {
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2 + 1);
+            }
+            transitions[count] = transition.toEpochSecond() * 1000L;
+            offsets[++count] = transition.getOffsetAfter().getTotalSeconds() * 1000;
+            transition = rules.nextTransition(transition.getInstant());
+        }
+
+        this.transitionMillis = Arrays.copyOf(transitions, count);
+        this.offsetMillis = Arrays.copyOf(offsets, count + 1);
+    }
+
+    /**
+     * Gets the shared table of a zone
+     */
+    static ZoneOffsets of(ZoneId zone) {
+        ZoneOffsets offsets = ZONES.get(zone);
+        if (offsets == null) {
+            offsets = new ZoneOffsets(zone.getRules());
+            ZoneOffsets existing = ZONES.putIfAbsent(zone, offsets);
+            if (existing != null) offsets = existing;
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the offset from UTC in effect at an instant
+     */
+    int getOffsetMillis(long epochMillis) {
+        if (epochMillis < FIRST_MILLIS || epochMillis >= END_MILLIS) {
+            return rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000;
+        }
+
+        int index = Arrays.binarySearch(transitionMillis, epochMillis);
+        return offsetMillis[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    /**
+     * Gets milliseconds since January 1, 1970 00:00 local time
+     */
+    long toLocalMillis(long epochMillis) {
+        return epochMillis + getOffsetMillis(epochMillis);
+    }
+
+    /**
+     * Gets the epoch day of the local date of an instant
+     */
+    long toEpochDay(long epochMillis) {
+        return Math.floorDiv(toLocalMillis(epochMillis), EpochDays.MILLIS_PER_DAY);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static com.bfemmer.datecodes.TestClocks.REFERENCE;
+import static com.bfemmer.datecodes.TestClocks.UTC;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class CandidateSpliteratorTest {
+    @Test
+    public void testAirCandidatesMatchDecodeWindow() throws Exception {
+        DateCodeBuilder dateCodeBuilder = AirDateCodeBuilder.getInstance();
+        Instant from = LocalDate.of(2015, 3, 15).atStartOfDay(dateCodeBuilder.getZone()).toInstant();
+
+        for (int i = 0; i < dateCodeBuilder.getCodeSpaceSize(); i++) {
+            String dateCode = dateCodeBuilder.getCodeAt(i);
+
+            // Generate expected result
+            List<ZonedDateTime> expected = dateCodeBuilder.getDateTimesForCode(dateCode, REFERENCE);
+
+            // Generate actual results
+            List<ZonedDateTime> oldestFirst = dateCodeBuilder.getCandidates(dateCode, from, REFERENCE,
+                    CandidateOrder.OLDEST_FIRST).collect(Collectors.toList());
+            List<ZonedDateTime> newestFirst = dateCodeBuilder.getCandidates(dateCode, from, REFERENCE,
+                    CandidateOrder.NEWEST_FIRST).collect(Collectors.toList());
+            Collections.reverse(newestFirst);
+
+            // Evaluate
+            assertEquals("Air candidates failed for " + dateCode, expected, oldestFirst);
+            assertEquals("Air newest first candidates failed for " + dateCode, expected, newestFirst);
+        }
+    }
+
+    @Test
+    public void testOceanCandidatesAcrossDecades() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new OceanDateCodeBuilder(CLOCK);
+        Instant from = Instant.parse("2000-01-01T00:00:00Z");
+        Instant to = Instant.parse("2030-01-01T00:00:00Z");
+
+        // Generate actual results
+        List<ZonedDateTime> candidates = dateCodeBuilder.getCandidates("6001", from, to, CandidateOrder.OLDEST_FIRST)
+                .collect(Collectors.toList());
+
+        // Evaluate
+        assertEquals(3, candidates.size());
+        assertEquals(LocalDate.of(2006, 1, 1).atStartOfDay(UTC), candidates.get(0));
+        assertEquals(LocalDate.of(2026, 1, 1).atStartOfDay(UTC), candidates.get(2));
+        assertEquals(LocalDate.of(2016, 1, 1).atStartOfDay(UTC),
+                dateCodeBuilder.getMostRecentCandidate("6001", Instant.parse("2019-07-04T00:00:00Z")).get());
+    }
+
+    @Test
+    public void testSurfaceCandidatesInCustomWindow() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new SurfaceDateCodeBuilder(CLOCK);
+        Instant from = REFERENCE.minus(90, ChronoUnit.DAYS);
+
+        // Evaluate
+        assertEquals(1, dateCodeBuilder.getCandidates("001", from, REFERENCE, CandidateOrder.NEWEST_FIRST).count());
+        assertEquals(0, dateCodeBuilder.getCandidates("200", from, REFERENCE, CandidateOrder.NEWEST_FIRST).count());
+        assertEquals(LocalDate.of(2015, 12, 31).atStartOfDay(UTC),
+                dateCodeBuilder.getMostRecentCandidate("365", REFERENCE).get());
+    }
+
+    @Test
+    public void testFirstCandidateOfUnboundedRange() throws Exception {
+        DateCodeBuilder dateCodeBuilder = AirDateCodeBuilder.getInstance();
+        Instant from = Instant.parse("0001-01-01T00:00:00Z");
+        Instant to = Instant.parse("9999-12-31T23:59:59Z");
+
+        // Generate actual results
+        Iterator<ZonedDateTime> candidates = dateCodeBuilder.getCandidateIterator("Z66", from, to,
+                CandidateOrder.NEWEST_FIRST);
+        List<ZonedDateTime> firstTwo = new ArrayList<>();
+        firstTwo.add(candidates.next());
+        firstTwo.add(candidates.next());
+
+        // Evaluate (9999 is not a leap year, so there is no day 366)
+        assertEquals(ZonedDateTime.parse("9999-09-23T23:00Z[GMT]"), firstTwo.get(0));
+        assertEquals(ZonedDateTime.parse("9999-06-15T23:00Z[GMT]"), firstTwo.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedCode() throws Exception {
+        // Expect method to throw exception
+        SurfaceDateCodeBuilder.getInstance().getCandidates("367", REFERENCE, REFERENCE, CandidateOrder.OLDEST_FIRST);
+    }
+}
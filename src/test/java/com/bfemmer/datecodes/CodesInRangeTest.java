@@ -0,0 +1,68 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static com.bfemmer.datecodes.TestClocks.REFERENCE;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class CodesInRangeTest {
+    @Test
+    public void testCodesInRange() throws Exception {
+        DateCodeBuilder oceanBuilder = new OceanDateCodeBuilder(CLOCK);
+        DateCodeBuilder surfaceBuilder = new SurfaceDateCodeBuilder(CLOCK);
+        DateCodeBuilder airBuilder = AirDateCodeBuilder.getInstance();
+
+        // Evaluate
+        assertEquals(Arrays.asList("5365", "6001", "6002"), oceanBuilder.getCodesInRange(
+                Instant.parse("2015-12-31T23:00:00Z"), Instant.parse("2016-01-02T00:00:00Z")));
+        assertEquals(Arrays.asList("A75", "B75", "Z74"), airBuilder.getCodesInRange(
+                Instant.parse("2016-03-14T23:59:59Z"), Instant.parse("2016-03-15T01:00:00Z")));
+        assertEquals(366, surfaceBuilder.getCodeIndexesInRange(
+                Instant.parse("2015-01-01T00:00:00Z"), Instant.parse("2016-12-31T00:00:00Z")).cardinality());
+
+        // Day 366 only occurs in leap years, which never end in an odd digit
+        BitSet codeIndexes = oceanBuilder.getCodeIndexesInRange(Instant.parse("1900-01-01T00:00:00Z"),
+                Instant.parse("9999-01-01T00:00:00Z"));
+        assertEquals(oceanBuilder.getCodeSpaceSize() - 5, codeIndexes.cardinality());
+        assertFalse(codeIndexes.get(oceanBuilder.getCodeIndex("1366")));
+        assertTrue(codeIndexes.get(oceanBuilder.getCodeIndex("2366")));
+
+        // Every code decodes into the range it was generated from
+        Instant from = Instant.parse("2016-02-01T00:00:00Z");
+        for (String dateCode : oceanBuilder.getCodesInRange(from, REFERENCE)) {
+            LocalDate date = oceanBuilder.getLocalDatesForCode(dateCode).get(0);
+            assertTrue(dateCode, !date.isBefore(LocalDate.of(2016, 2, 1)) && !date.isAfter(LocalDate.of(2016, 3, 15)));
+        }
+    }
+}
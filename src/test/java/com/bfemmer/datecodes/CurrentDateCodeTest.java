@@ -0,0 +1,137 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class CurrentDateCodeTest {
+
+    @Test
+    public void testRefreshFiresListenerOnRollover() throws Exception {
+        SettableClock clock = new SettableClock(Instant.parse("2016-03-15T10:30:00Z"));
+        List<String> rollovers = new ArrayList<>();
+
+        try (CurrentDateCode currentDateCode = new CurrentDateCode(new AirDateCodeBuilder(clock))) {
+            currentDateCode.addRolloverListener((previousCode, currentCode) ->
+                    rollovers.add(previousCode + ">" + currentCode));
+
+            // Evaluate
+            assertEquals("L75", currentDateCode.getCode());
+            clock.set(Instant.parse("2016-03-15T10:59:00Z"));
+            currentDateCode.refresh();
+            assertEquals("L75", currentDateCode.getCode());
+            assertTrue(rollovers.isEmpty());
+
+            clock.set(Instant.parse("2016-03-15T11:00:00Z"));
+            currentDateCode.refresh();
+            assertEquals("M75", currentDateCode.getCode());
+            assertEquals(1, rollovers.size());
+            assertEquals("L75>M75", rollovers.get(0));
+        }
+    }
+
+    @Test
+    public void testRolloverOnLocalHourOfHalfHourZone() throws Exception {
+        SettableClock clock = (SettableClock) new SettableClock(Instant.parse("2016-03-15T11:29:00Z"))
+                .withZone(ZoneId.of("Asia/Kolkata"));
+
+        try (CurrentDateCode currentDateCode = new CurrentDateCode(PatternDateCodeBuilder.compile("hhDDD", clock))) {
+            // Evaluate
+            assertEquals("16075", currentDateCode.getCode());
+            clock.set(Instant.parse("2016-03-15T11:30:00Z"));
+            currentDateCode.refresh();
+            assertEquals("17075", currentDateCode.getCode());
+        }
+    }
+
+    @Test
+    public void testScheduledRollover() throws Exception {
+        SettableClock clock = new SettableClock(Instant.parse("2016-03-15T23:59:59.950Z"));
+        CountDownLatch rolledOver = new CountDownLatch(1);
+
+        try (CurrentDateCode currentDateCode = new CurrentDateCode(new SurfaceDateCodeBuilder(clock))) {
+            currentDateCode.addRolloverListener((previousCode, currentCode) -> rolledOver.countDown());
+            assertEquals("075", currentDateCode.getCode());
+            clock.set(Instant.parse("2016-03-16T00:00:00Z"));
+
+            // Evaluate
+            assertTrue(rolledOver.await(5, TimeUnit.SECONDS));
+            assertEquals("076", currentDateCode.getCode());
+        }
+    }
+
+    /**
+     * Clock that only moves when told to
+     */
+    private static final class SettableClock extends Clock {
+        private final AtomicLong millis;
+        private final ZoneId zone;
+
+        private SettableClock(Instant instant) {
+            this(new AtomicLong(instant.toEpochMilli()), ZoneId.of("UTC"));
+        }
+
+        private SettableClock(AtomicLong millis, ZoneId zone) {
+            this.millis = millis;
+            this.zone = zone;
+        }
+
+        private void set(Instant instant) {
+            millis.set(instant.toEpochMilli());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new SettableClock(millis, zone);
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
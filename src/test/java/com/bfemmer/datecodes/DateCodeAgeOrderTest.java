@@ -0,0 +1,106 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static com.bfemmer.datecodes.TestClocks.REFERENCE;
+import static com.bfemmer.datecodes.TestClocks.UTC;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeAgeOrderTest {
+    @Test
+    public void testSortKeysFollowDecodedDates() throws Exception {
+        DateCodeBuilder[] builders = {new AirDateCodeBuilder(CLOCK), new OceanDateCodeBuilder(CLOCK),
+                new SurfaceDateCodeBuilder(CLOCK)};
+        for (DateCodeBuilder dateCodeBuilder : builders) {
+            DateCodeAgeOrder ageOrder = dateCodeBuilder.getAgeOrder(REFERENCE);
+
+            // Evaluate
+            for (int i = 1; i < dateCodeBuilder.getCodeSpaceSize(); i += 7) {
+                String dateCode1 = dateCodeBuilder.getCodeAt(i - 1);
+                String dateCode2 = dateCodeBuilder.getCodeAt(i);
+                List<ZonedDateTime> dates1 = dateCodeBuilder.getDateTimesForCode(dateCode1, REFERENCE);
+                List<ZonedDateTime> dates2 = dateCodeBuilder.getDateTimesForCode(dateCode2, REFERENCE);
+                if (dates1.isEmpty() || dates2.isEmpty()) continue;
+
+                int expected = Integer.signum(dates1.get(dates1.size() - 1).compareTo(dates2.get(dates2.size() - 1)));
+                assertEquals(dateCode1 + " vs " + dateCode2, expected,
+                        Integer.signum(ageOrder.compare(dateCode1, dateCode2)));
+            }
+        }
+    }
+
+    @Test
+    public void testSortMatchesComparator() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new AirDateCodeBuilder(CLOCK);
+        DateCodeAgeOrder ageOrder = dateCodeBuilder.getAgeOrder(REFERENCE);
+        Random random = new Random(42);
+        String[] dateCodes = new String[1000];
+        for (int i = 0; i < dateCodes.length; i++) {
+            dateCodes[i] = dateCodeBuilder.getCodeAt(random.nextInt(dateCodeBuilder.getCodeSpaceSize()));
+        }
+        dateCodes[17] = "I75";
+
+        // Generate actual results
+        String[] expected = dateCodes.clone();
+        Arrays.sort(expected, 1, 999, ageOrder);
+        ageOrder.sort(dateCodes, 1, 998);
+
+        // Evaluate
+        assertArrayEquals(expected, dateCodes);
+        assertEquals("I75", dateCodes[998]);
+        assertEquals(DateCodeAgeOrder.UNORDERED, ageOrder.getSortKey("I75"));
+        assertTrue(ageOrder.compare("L75", "M74") > 0);
+        assertTrue(ageOrder.compare("L75", "M75") > 0);
+        assertTrue(ageOrder.compare("K75", "L75") < 0);
+    }
+
+    @Test
+    public void testSortKeepsOrderOfEqualKeys() throws Exception {
+        Instant reference = Instant.parse("2017-03-15T10:30:00Z");
+        DateCodeBuilder dateCodeBuilder = PatternDateCodeBuilder.compile("YDDD",
+                Clock.fixed(reference, UTC));
+        DateCodeAgeOrder ageOrder = new DateCodeAgeOrder(dateCodeBuilder, reference);
+
+        // Day 366 of 2017 and 2015 does not exist, so neither code decodes to a date
+        String[] dateCodes = {"7366", "6001", "X", "5366", "6366"};
+
+        // Generate actual results
+        ageOrder.sort(dateCodes, 0, dateCodes.length);
+
+        // Evaluate
+        assertArrayEquals(new String[]{"6001", "6366", "7366", "X", "5366"}, dateCodes);
+    }
+}
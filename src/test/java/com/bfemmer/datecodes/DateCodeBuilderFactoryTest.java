@@ -23,8 +23,17 @@ SOFTWARE.
  */
 package com.bfemmer.datecodes;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -35,6 +44,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
 import static org.junit.Assert.*;
 
 /**
@@ -643,6 +653,13 @@ public class DateCodeBuilderFactoryTest {
         List<Date> dates = dateCodeBuilder.getCalendarDatesForCode("A001");
     }
 
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOceanConveyanceCodeAtOutOfRange() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Ocean");
+        // Expect method to throw exception
+        dateCodeBuilder.getCodeAt(dateCodeBuilder.getCodeSpaceSize());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testOceanConveyanceCalendarCodeLengthTooShort() throws Exception {
         DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Ocean");
@@ -701,4 +718,446 @@ public class DateCodeBuilderFactoryTest {
         // Expect method to throw exception
         List<Date> dates = dateCodeBuilder.getCalendarDatesForCode("10000");
     }
+
+    @Test
+    public void testAirConveyanceWriteCode() throws Exception {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+
+        // Seed date to March 1, 2016 23:00 GMT
+        calendar.clear();
+        calendar.set(2016, 2, 1, 23, 0);
+
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        char[] chars = new char[5];
+        StringBuilder builder = new StringBuilder("x");
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+
+        // Evaluate
+        assertEquals(3, dateCodeBuilder.writeCode(calendar, chars, 1));
+        assertEquals("Z61", new String(chars, 1, 3));
+        assertEquals(3, dateCodeBuilder.writeCode(calendar, builder));
+        assertEquals("xZ61", builder.toString());
+        assertEquals(3, dateCodeBuilder.writeCode(calendar, buffer));
+        assertEquals("Z61", new String(buffer.array(), StandardCharsets.US_ASCII));
+        assertSame("Air conveyance codes should be precomputed",
+                dateCodeBuilder.getCode(calendar), dateCodeBuilder.getCode(calendar));
+    }
+
+    @Test
+    public void testOceanConveyanceWriteCode() throws Exception {
+        Calendar calendar = Calendar.getInstance(Locale.getDefault());
+
+        // Seed date to December 31, 2016 00:01 (one minute after midnight)
+        calendar.clear();
+        calendar.set(2016, 11, 31, 0, 1);
+
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Ocean");
+        char[] chars = new char[4];
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        // Evaluate
+        assertEquals(4, dateCodeBuilder.writeCode(calendar, chars, 0));
+        assertEquals("6366", new String(chars));
+        assertEquals(4, dateCodeBuilder.writeCode(calendar, buffer));
+        assertEquals("6366", new String(buffer.array(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testSurfaceConveyanceWriteCode() throws Exception {
+        Calendar calendar = Calendar.getInstance(Locale.getDefault());
+
+        // Seed date to January 9, 2015 00:01 (one minute after midnight)
+        calendar.clear();
+        calendar.set(2015, 0, 9, 0, 1);
+
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Surface");
+        StringBuilder builder = new StringBuilder();
+
+        // Evaluate
+        assertEquals(3, dateCodeBuilder.writeCode(calendar, builder));
+        assertEquals("009", builder.toString());
+    }
+
+    @Test
+    public void testAirConveyanceCalendarCodeCurrentHour() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+
+        // Truncate the current time to the start of the hour
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        // Generate actual results
+        List<Date> dates = dateCodeBuilder.getCalendarDatesForCode(dateCodeBuilder.getCode(calendar));
+
+        // Evaluate (the most recent candidate is the current hour)
+        assertTrue("Air conveyance calendar date code generation returned too few dates",
+                dates.size() >= 3);
+        assertEquals("Air conveyance calendar date code generation failed", calendar.getTime(),
+                dates.get(dates.size() - 1));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testAirConveyanceCalendarCodeNumberFormat() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+
+        // Expect method to throw exception
+        List<Date> dates = dateCodeBuilder.getCalendarDatesForCode("AA1");
+    }
+
+    @Test
+    public void testJavaTimeCodesMatchCalendarCodes() throws Exception {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+
+        // Seed date to December 31, 2016 22:30 GMT
+        calendar.clear();
+        calendar.set(2016, 11, 31, 22, 30);
+        ZonedDateTime dateTime = ZonedDateTime.of(2016, 12, 31, 22, 30, 0, 0, ZoneId.of("GMT"));
+
+        for (String conveyanceType : new String[]{"Air", "Ocean", "Surface"}) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+            String expected = dateCodeBuilder.getCode(calendar);
+
+            // Evaluate
+            assertEquals(conveyanceType + " ZonedDateTime code generation failed",
+                    expected, dateCodeBuilder.getCode(dateTime));
+        }
+
+        // Air codes are always GMT based
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        assertEquals("Y66", dateCodeBuilder.getCode(dateTime.toInstant()));
+        assertEquals("Y66", dateCodeBuilder.getCodeForEpochMillis(calendar.getTimeInMillis()));
+        assertEquals("A66", dateCodeBuilder.getCodeForEpochDay(dateTime.toLocalDate().toEpochDay()));
+    }
+
+    @Test
+    public void testOceanConveyanceEpochDayCode() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Ocean");
+
+        // Evaluate
+        assertEquals("6061", dateCodeBuilder.getCode(LocalDate.of(2016, 3, 1)));
+        assertEquals("9001", dateCodeBuilder.getCodeForEpochDay(LocalDate.of(1999, 1, 1).toEpochDay()));
+    }
+
+    @Test
+    public void testSurfaceConveyanceLocalDatesForCode() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Surface");
+        LocalDate today = LocalDate.now(dateCodeBuilder.getZone());
+
+        // Generate actual results
+        List<LocalDate> dates = dateCodeBuilder.getLocalDatesForCode(dateCodeBuilder.getCode(today));
+
+        // Evaluate
+        assertEquals(1, dates.size());
+        assertEquals(today, dates.get(0));
+        assertEquals(today.toEpochDay(), dateCodeBuilder.getEpochDaysForCode(dateCodeBuilder.getCode())[0]);
+    }
+
+    @Test
+    public void testBulkEncodeMatchesSingleCodes() throws Exception {
+        long[] epochMillis = new long[1000];
+        long[] epochDays = new long[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++) {
+            // Step through roughly three years in uneven increments
+            epochMillis[i] = 1420070400000L + i * 97_000_000L;
+            epochDays[i] = 16436 + i;
+        }
+
+        for (String conveyanceType : new String[]{"Air", "Ocean", "Surface"}) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+            int codeLength = dateCodeBuilder.getCodeLength();
+            byte[] packed = new byte[epochMillis.length * codeLength];
+            ByteBuffer direct = ByteBuffer.allocateDirect(packed.length - codeLength);
+
+            // Generate actual results
+            assertEquals(packed.length, dateCodeBuilder.encodeEpochMillis(epochMillis, 0, epochMillis.length,
+                    packed, 0));
+            dateCodeBuilder.encodeEpochDays(epochDays, 1, epochDays.length - 1, direct);
+
+            // Evaluate
+            assertEquals(0, direct.remaining());
+            for (int i = 0; i < epochMillis.length; i++) {
+                assertEquals(conveyanceType + " bulk code generation failed",
+                        dateCodeBuilder.getCodeForEpochMillis(epochMillis[i]),
+                        new String(packed, i * codeLength, codeLength, StandardCharsets.US_ASCII));
+            }
+            for (int i = 1; i < epochDays.length; i++) {
+                byte[] code = new byte[codeLength];
+                direct.position((i - 1) * codeLength);
+                direct.get(code);
+                assertEquals(conveyanceType + " bulk day code generation failed",
+                        dateCodeBuilder.getCodeForEpochDay(epochDays[i]),
+                        new String(code, StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void testLookupByConveyanceTypeAndName() throws Exception {
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder expected = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+
+            // Evaluate
+            assertSame(expected, DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType.getName()));
+            assertSame(expected, DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType.name()));
+            assertSame(expected, DateCodeBuilderFactory.getDateCodeBuilder(
+                    conveyanceType.getName().toLowerCase(Locale.ROOT)));
+        }
+        assertSame(AirDateCodeBuilder.getInstance(), DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.AIR));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLookupUnknownConveyanceType() throws Exception {
+        // Expect method to throw exception
+        DateCodeBuilderFactory.getDateCodeBuilder("Rail");
+    }
+
+    @Test
+    public void testRegisterConveyanceType() throws Exception {
+        DateCodeBuilder dateCodeBuilder = OceanDateCodeBuilder.getInstance();
+        DateCodeBuilderFactory.registerDateCodeBuilder("Barge", dateCodeBuilder);
+
+        try {
+            // Evaluate
+            assertSame(dateCodeBuilder, DateCodeBuilderFactory.getDateCodeBuilder("BARGE"));
+            try {
+                DateCodeBuilderFactory.registerDateCodeBuilder("barge", SurfaceDateCodeBuilder.getInstance());
+                fail("Duplicate conveyance type registration should fail");
+            } catch (IllegalArgumentException expected) {
+                assertSame(dateCodeBuilder, DateCodeBuilderFactory.getDateCodeBuilder("Barge"));
+            }
+        } finally {
+            DateCodeBuilderFactory.unregisterDateCodeBuilder("barge");
+        }
+
+        // The name is free again, and the built in entry for the same builder is untouched
+        try {
+            DateCodeBuilderFactory.getDateCodeBuilder("Barge");
+            fail("Unregistered conveyance type should not be found");
+        } catch (IllegalArgumentException expected) {
+            assertSame(dateCodeBuilder, DateCodeBuilderFactory.getDateCodeBuilder("Ocean"));
+        }
+    }
+
+    @Test
+    public void testFixedClockCodes() throws Exception {
+        // Evaluate (March 15, 2016 is day 75 of a leap year)
+        assertEquals("L75", new AirDateCodeBuilder(CLOCK).getCode());
+        assertEquals("6075", new OceanDateCodeBuilder(CLOCK).getCode());
+        assertEquals("075", new SurfaceDateCodeBuilder(CLOCK).getCode());
+    }
+
+    @Test
+    public void testFixedClockDecode() throws Exception {
+        // Evaluate
+        assertEquals(LocalDate.of(2016, 1, 1),
+                new OceanDateCodeBuilder(CLOCK).getLocalDatesForCode("6001").get(0));
+        assertEquals(LocalDate.of(2016, 12, 30),
+                new SurfaceDateCodeBuilder(CLOCK).getLocalDatesForCode("365").get(0));
+        List<ZonedDateTime> dateTimes = new AirDateCodeBuilder(CLOCK).getDateTimesForCode("L75");
+        assertEquals(ZonedDateTime.parse("2016-03-15T10:00:00Z[GMT]"), dateTimes.get(dateTimes.size() - 1));
+    }
+
+    @Test
+    public void testDecodeAgainstReference() throws Exception {
+        Instant reference = Instant.parse("2019-07-04T12:00:00Z");
+        DateCodeBuilder airBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.AIR);
+        DateCodeBuilder oceanBuilder = new OceanDateCodeBuilder(Clock.systemUTC());
+
+        // Evaluate
+        List<ZonedDateTime> dateTimes = airBuilder.getDateTimesForCode("M85", reference);
+        assertEquals(ZonedDateTime.parse("2019-07-04T11:00:00Z[GMT]"), dateTimes.get(dateTimes.size() - 1));
+        assertEquals(LocalDate.of(2019, 1, 1).toEpochDay(),
+                oceanBuilder.getEpochDaysForCode("9001", LocalDate.of(2019, 7, 4).toEpochDay())[0]);
+        assertEquals(Date.from(Instant.parse("2018-01-01T00:00:00Z")),
+                oceanBuilder.getCalendarDatesForCode("8001", reference).get(0));
+
+        // Air codes resolve against the end of the reference day
+        long[] epochDays = airBuilder.getEpochDaysForCode("Z85", LocalDate.of(2019, 3, 26).toEpochDay());
+        assertEquals(LocalDate.of(2019, 3, 26).toEpochDay(), epochDays[epochDays.length - 1]);
+    }
+
+    @Test
+    public void testValidFormat() throws Exception {
+        DateCodeBuilder airBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.AIR);
+        DateCodeBuilder oceanBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.OCEAN);
+        DateCodeBuilder surfaceBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.SURFACE);
+
+        // Evaluate
+        assertTrue(airBuilder.isValidFormat("A01"));
+        assertTrue(airBuilder.isValidFormat("z99"));
+        assertFalse(airBuilder.isValidFormat("I01"));
+        assertFalse(airBuilder.isValidFormat("A+1"));
+        assertFalse(airBuilder.isValidFormat("A001"));
+        assertTrue(oceanBuilder.isValidFormat("6366"));
+        assertFalse(oceanBuilder.isValidFormat("6000"));
+        assertFalse(oceanBuilder.isValidFormat("6367"));
+        assertFalse(oceanBuilder.isValidFormat("X001"));
+        assertTrue(surfaceBuilder.isValidFormat("001"));
+        assertFalse(surfaceBuilder.isValidFormat("400"));
+        assertFalse(surfaceBuilder.isValidFormat(""));
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+            assertTrue(conveyanceType + " generated code failed validation",
+                    dateCodeBuilder.isValidFormat(dateCodeBuilder.getCode()));
+        }
+    }
+
+    @Test
+    public void testBulkValidate() throws Exception {
+        DateCodeBuilder airBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.AIR);
+        String[] dateCodes = {"B07", "I07", null, "b07", "B7"};
+        ByteBuffer buffer = ByteBuffer.wrap("xxB07I07Z99A-1".getBytes(StandardCharsets.US_ASCII));
+
+        // Generate expected result
+        BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(3);
+
+        // Evaluate
+        BitSet invalidCodes = airBuilder.getInvalidCodes(dateCodes, 0, dateCodes.length);
+        assertEquals(3, invalidCodes.cardinality());
+        assertTrue(invalidCodes.get(1) && invalidCodes.get(2) && invalidCodes.get(4));
+        assertEquals(expected, airBuilder.getInvalidCodes(buffer, 2, 4));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testByteArrayCodec() throws Exception {
+        long epochMillis = System.currentTimeMillis();
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+            String dateCode = dateCodeBuilder.getCodeForEpochMillis(epochMillis);
+            byte[] bytes = new byte[8];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+
+            // Generate actual results
+            int length = dateCodeBuilder.writeCodeForEpochMillis(epochMillis, bytes, 2);
+            dateCodeBuilder.writeCodeForEpochMillis(epochMillis, buffer);
+            long[] epochDays = new long[dateCodeBuilder.getMaxCandidateCount()];
+            int count = dateCodeBuilder.getEpochDaysForCode(bytes, 2, length, epochDays, 0);
+
+            // Evaluate
+            assertEquals(dateCode, new String(bytes, 2, length, StandardCharsets.US_ASCII));
+            assertEquals(length, buffer.position());
+            assertTrue(dateCodeBuilder.isValidFormat(bytes, 2, length));
+            assertFalse(dateCodeBuilder.isValidFormat(bytes, 1, length));
+            assertEquals(dateCodeBuilder.getCodeIndex(dateCode), dateCodeBuilder.getCodeIndex(bytes, 2, length));
+            assertEquals(dateCodeBuilder.getDateTimesForCode(dateCode), dateCodeBuilder.getDateTimesForCode(buffer, 0, length));
+            assertArrayEquals(dateCodeBuilder.getEpochDaysForCode(dateCode), Arrays.copyOf(epochDays, count));
+            assertEquals(dateCodeBuilder.getDateTimesForCode(dateCode),
+                    dateCodeBuilder.getDateTimesForCode(bytes, 2, length));
+        }
+
+        // Out of range days still roll into the adjacent year, as with the String decoders
+        DateCodeBuilder surfaceBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.SURFACE);
+        long[] epochDays = new long[1];
+        surfaceBuilder.getEpochDaysForCode("000".getBytes(StandardCharsets.US_ASCII), 0, 3, epochDays, 0);
+        assertArrayEquals(surfaceBuilder.getEpochDaysForCode("000"), epochDays);
+    }
+
+    @Test
+    public void testDecodeStatus() throws Exception {
+        DateCodeBuilder airBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.AIR);
+        DateCodeBuilder oceanBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.OCEAN);
+        DateCodeBuilder surfaceBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.SURFACE);
+
+        // Evaluate
+        assertEquals(DecodeStatus.OK, airBuilder.getDecodeStatus("B07"));
+        assertEquals(DecodeStatus.BAD_LENGTH, airBuilder.getDecodeStatus("B007"));
+        assertEquals(DecodeStatus.BAD_HOUR_LETTER, airBuilder.getDecodeStatus("I07"));
+        assertEquals(DecodeStatus.NON_NUMERIC, airBuilder.getDecodeStatus("B0X"));
+        assertEquals(DecodeStatus.NON_NUMERIC, oceanBuilder.getDecodeStatus("X001"));
+        assertEquals(DecodeStatus.DAY_OUT_OF_RANGE, oceanBuilder.getDecodeStatus("6367"));
+        assertEquals(DecodeStatus.DAY_OUT_OF_RANGE, surfaceBuilder.getDecodeStatus("000"));
+        assertEquals(DecodeStatus.BAD_LENGTH, surfaceBuilder.getDecodeStatus(""));
+        assertEquals(DecodeStatus.DAY_OUT_OF_RANGE, surfaceBuilder.getDecodeStatus(
+                ByteBuffer.wrap("999".getBytes(StandardCharsets.US_ASCII)), 0, 3));
+    }
+
+    @Test
+    public void testDecodeWithoutExceptions() throws Exception {
+        DateCodeBuilder oceanBuilder = DateCodeBuilderFactory.getDateCodeBuilder(ConveyanceType.OCEAN);
+        String[] dateCodes = {"6001", "60O1", "6400", "601", "9366"};
+        DecodeResult[] results = new DecodeResult[dateCodes.length];
+
+        // Generate actual results
+        DecodeStatusCounts counts = oceanBuilder.decode(dateCodes, 0, dateCodes.length, results, 0);
+
+        // Evaluate
+        assertEquals(5, counts.getTotalCount());
+        assertEquals(2, counts.getCount(DecodeStatus.OK));
+        assertEquals(1, counts.getCount(DecodeStatus.NON_NUMERIC));
+        assertEquals(1, counts.getCount(DecodeStatus.DAY_OUT_OF_RANGE));
+        assertEquals(1, counts.getCount(DecodeStatus.BAD_LENGTH));
+        assertEquals(3, counts.getErrorCount());
+        assertTrue(results[0].isOk());
+        assertArrayEquals(oceanBuilder.getEpochDaysForCode("6001"), results[0].getEpochDays());
+        assertEquals(oceanBuilder.getEpochDaysForCode("9366")[0], results[4].getEpochDay(0));
+        assertEquals(0, results[1].getCandidateCount());
+        assertSame(results[1], oceanBuilder.decode("6X01"));
+
+        ByteBuffer buffer = ByteBuffer.wrap("6001A00160019366".getBytes(StandardCharsets.US_ASCII));
+        counts = oceanBuilder.decode(buffer, 0, 4, results, 0);
+        assertEquals(3, counts.getCount(DecodeStatus.OK));
+        assertEquals(DecodeStatus.NON_NUMERIC, results[1].getStatus());
+    }
+
+    @Test
+    public void testPrimitiveDecode() throws Exception {
+        DateCodeBuilder airBuilder = new AirDateCodeBuilder(CLOCK);
+        DateCodeBuilder oceanBuilder = new OceanDateCodeBuilder(CLOCK);
+        long[] epochHours = new long[airBuilder.getMaxCandidateCount() + 1];
+        int[] epochDays = new int[2];
+
+        // Generate actual results
+        int hourCount = airBuilder.getEpochHoursForCode("L75", epochHours, 1);
+        int dayCount = oceanBuilder.getEpochDaysForCode("6075", epochDays, 1);
+
+        // Evaluate
+        List<ZonedDateTime> dateTimes = airBuilder.getDateTimesForCode("L75");
+        assertEquals(dateTimes.size(), hourCount);
+        for (int i = 0; i < hourCount; i++) {
+            assertEquals(dateTimes.get(i).toEpochSecond() / 3600, epochHours[i + 1]);
+        }
+        assertEquals(1, dayCount);
+        assertEquals(LocalDate.of(2016, 3, 15).toEpochDay(), epochDays[1]);
+        assertArrayEquals(new int[]{(int) LocalDate.of(2016, 3, 15).toEpochDay()},
+                oceanBuilder.getEpochDayStream("6075").toArray());
+        assertEquals(1, oceanBuilder.getEpochHoursForCodeIndex(oceanBuilder.getCodeIndex("6075"), CLOCK.millis(),
+                epochHours, 0));
+        assertEquals(LocalDate.of(2016, 3, 15).toEpochDay() * 24, epochHours[0]);
+    }
+
+    @Test
+    public void testPrimitiveDecodeIntoIntArray() throws Exception {
+        DateCodeBuilder[] builders = {new AirDateCodeBuilder(CLOCK), new OceanDateCodeBuilder(CLOCK),
+                new SurfaceDateCodeBuilder(CLOCK), PatternDateCodeBuilder.compile("YDDD", CLOCK)};
+
+        for (DateCodeBuilder builder : builders) {
+            long[] expected = new long[builder.getMaxCandidateCount()];
+            int[] actual = new int[builder.getMaxCandidateCount() + 1];
+            for (int i = 0; i < builder.getCodeSpaceSize(); i++) {
+                // Generate actual results
+                int expectedCount = builder.getEpochDaysForCodeIndex(i, CLOCK.millis(), expected, 0);
+                int actualCount = builder.getEpochDaysForCodeIndex(i, CLOCK.millis(), actual, 1);
+
+                // Evaluate
+                assertEquals(expectedCount, actualCount);
+                for (int j = 0; j < actualCount; j++) {
+                    assertEquals(expected[j], actual[j + 1]);
+                }
+            }
+        }
+
+        // Generate actual results
+        int[] epochDays = builders[1].getEpochDayStream(Arrays.asList("6075", "6001", "6074").iterator())
+                .toArray();
+
+        // Evaluate
+        assertArrayEquals(new int[]{(int) LocalDate.of(2016, 3, 15).toEpochDay(),
+                (int) LocalDate.of(2016, 1, 1).toEpochDay(), (int) LocalDate.of(2016, 3, 14).toEpochDay()},
+                epochDays);
+    }
 }
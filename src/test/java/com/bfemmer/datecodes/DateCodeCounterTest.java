@@ -0,0 +1,122 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.LocalDate;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static com.bfemmer.datecodes.TestClocks.REFERENCE;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeCounterTest {
+    @Test
+    public void testConcurrentIncrements() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new OceanDateCodeBuilder(CLOCK);
+        DateCodeCounter counter = new DateCodeCounter(dateCodeBuilder, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Generate actual results
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    counter.increment(dateCodeBuilder.getCodeAt(i % 100));
+                }
+                counter.increment("60O1");
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        long[] counts = counter.snapshot();
+
+        // Evaluate
+        assertEquals(800, counter.getCount(dateCodeBuilder.getCodeAt(0)));
+        assertEquals(8, counter.getMalformedCount());
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        assertEquals(80000, total);
+    }
+
+    @Test
+    public void testSnapshotThenReset() throws Exception {
+        DateCodeCounter counter = new DateCodeCounter(new SurfaceDateCodeBuilder(CLOCK));
+        counter.add("075", 3);
+        counter.increment("001");
+
+        // Generate actual results
+        long[] counts = counter.snapshotThenReset();
+
+        // Evaluate
+        assertEquals(3, counts[74]);
+        assertEquals(1, counts[0]);
+        assertEquals(0, counter.getCount("075"));
+        assertEquals(0, counter.snapshot()[0]);
+    }
+
+    @Test
+    public void testSnapshotThenResetMalformed() throws Exception {
+        DateCodeCounter counter = new DateCodeCounter(new SurfaceDateCodeBuilder(CLOCK));
+        counter.add("075", 3);
+        counter.add("0X5", 2);
+
+        // Generate actual results
+        long[] counts = counter.snapshotThenReset();
+        long[] swept = new long[counter.getDateCodeBuilder().getCodeSpaceSize()];
+        counter.increment("075");
+        long malformed = counter.snapshotThenReset(swept);
+
+        // Evaluate
+        assertEquals(3, counts[74]);
+        assertEquals(2, malformed);
+        assertEquals(1, swept[74]);
+        assertEquals(0, counter.getMalformedCount());
+    }
+
+    @Test
+    public void testCountsByDay() throws Exception {
+        DateCodeCounter counter = new DateCodeCounter(new AirDateCodeBuilder(CLOCK));
+        counter.add("A75", 2);
+        counter.add("L75", 3);
+        counter.add("M75", 5);
+        counter.increment("IXX");
+
+        // Generate actual results
+        SortedMap<LocalDate, Long> countsByDay = counter.getCountsByDay(REFERENCE);
+
+        // Evaluate
+        assertEquals(2, countsByDay.size());
+        assertEquals(Long.valueOf(5), countsByDay.get(LocalDate.of(2016, 3, 15)));
+        assertEquals(Long.valueOf(5), countsByDay.get(LocalDate.of(2015, 10, 2)));
+        assertEquals(LocalDate.of(2015, 10, 2), countsByDay.firstKey());
+    }
+}
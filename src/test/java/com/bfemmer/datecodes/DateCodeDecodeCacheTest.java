@@ -0,0 +1,93 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeDecodeCacheTest {
+
+    @Test
+    public void testCodeIndexRoundTrip() throws Exception {
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+
+            // Evaluate
+            for (int i = 0; i < dateCodeBuilder.getCodeSpaceSize(); i++) {
+                String dateCode = dateCodeBuilder.getCodeAt(i);
+                assertEquals(conveyanceType + " code index failed for " + dateCode, i,
+                        dateCodeBuilder.getCodeIndex(dateCode));
+            }
+        }
+    }
+
+    @Test
+    public void testCodeIndexRejectsMalformedCodes() throws Exception {
+        // Evaluate
+        assertEquals(-1, AirDateCodeBuilder.getInstance().getCodeIndex("I01"));
+        assertEquals(-1, AirDateCodeBuilder.getInstance().getCodeIndex("A1"));
+        assertEquals(AirDateCodeBuilder.getInstance().getCodeIndex("B07"),
+                AirDateCodeBuilder.getInstance().getCodeIndex("b07"));
+        assertEquals(-1, OceanDateCodeBuilder.getInstance().getCodeIndex("6000"));
+        assertEquals(-1, OceanDateCodeBuilder.getInstance().getCodeIndex("6367"));
+        assertEquals(-1, SurfaceDateCodeBuilder.getInstance().getCodeIndex("+01"));
+        assertEquals(365, SurfaceDateCodeBuilder.getInstance().getCodeIndex("366"));
+    }
+
+    @Test
+    public void testRepeatedDecodeHitsCache() throws Exception {
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+            DateCodeDecodeCache cache = new DateCodeDecodeCache(dateCodeBuilder);
+            String dateCode = dateCodeBuilder.getCode();
+
+            // Generate actual results
+            List<ZonedDateTime> first = cache.getDateTimesForCode(dateCode);
+            List<ZonedDateTime> second = cache.getDateTimesForCode(dateCode);
+            List<Date> dates = cache.getCalendarDatesForCode(dateCode);
+
+            // Evaluate
+            assertEquals(dateCodeBuilder.getDateTimesForCode(dateCode), first);
+            assertSame(first, second);
+            assertEquals(dateCodeBuilder.getCalendarDatesForCode(dateCode), dates);
+            assertEquals(1, cache.getMissCount());
+            assertEquals(2, cache.getHitCount());
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testMalformedCodeIsDecodedByBuilder() throws Exception {
+        DateCodeDecodeCache cache = new DateCodeDecodeCache(SurfaceDateCodeBuilder.getInstance());
+
+        // Expect method to throw exception
+        cache.getDateTimesForCode("A01");
+    }
+}
@@ -0,0 +1,155 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeFileDecoderTest {
+
+    private static ByteBuffer decode(DateCodeFileDecoder decoder, String contents,
+                                     DateCodeFileDecoder.Summary[] summary) throws Exception {
+        Path input = Files.createTempFile("date-codes", ".csv");
+        try {
+            Files.write(input, contents.getBytes(StandardCharsets.US_ASCII));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            summary[0] = decoder.decode(input, Channels.newChannel(output));
+            return ByteBuffer.wrap(output.toByteArray());
+        } finally {
+            Files.delete(input);
+        }
+    }
+
+    @Test
+    public void testSurfaceConveyanceColumn() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Surface");
+        DateCodeFileDecoder decoder = new DateCodeFileDecoder(dateCodeBuilder, 1, ',');
+        DateCodeFileDecoder.Summary[] summary = new DateCodeFileDecoder.Summary[1];
+
+        // Generate actual results
+        ByteBuffer output = decode(decoder, "id,code\r\n1,001\r\n2,\"366\"\r\n3,A01\r\n4\r\n5,060", summary);
+
+        // Evaluate (header, good, good, malformed, missing column, good without line break)
+        assertEquals(6, summary[0].getRecordCount());
+        assertEquals(3, summary[0].getCandidateCount());
+        assertEquals(2, summary[0].getMalformedCount());
+        assertEquals(1, summary[0].getStatusCounts().getCount(DecodeStatus.BAD_LENGTH));
+        assertEquals(1, summary[0].getStatusCounts().getCount(DecodeStatus.NON_NUMERIC));
+        assertEquals(0, output.get());
+        for (String code : new String[]{"001", "366"}) {
+            assertEquals(1, output.get());
+            assertEquals(dateCodeBuilder.getEpochDaysForCode(code)[0], output.getInt());
+        }
+        assertEquals(0, output.get());
+        assertEquals(0, output.get());
+        assertEquals(1, output.get());
+        assertEquals(dateCodeBuilder.getEpochDaysForCode("060")[0], output.getInt());
+        assertFalse(output.hasRemaining());
+    }
+
+    @Test
+    public void testAirConveyanceChunksPreserveOrder() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+
+        // Tiny chunks force many line aligned chunks across several threads
+        DateCodeFileDecoder decoder = new DateCodeFileDecoder(dateCodeBuilder, 0, '|', 4, 16);
+        DateCodeFileDecoder.Summary[] summary = new DateCodeFileDecoder.Summary[1];
+        StringBuilder contents = new StringBuilder();
+        String[] codes = new String[500];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = "ABCDEFGHJKLMNPQRSTUVWXYZ".charAt(i % 24) + String.format("%02d", i % 100);
+            contents.append(codes[i]).append("|x\n");
+        }
+
+        // Generate actual results
+        ByteBuffer output = decode(decoder, contents.toString(), summary);
+
+        // Evaluate
+        assertEquals(codes.length, summary[0].getRecordCount());
+        for (String code : codes) {
+            long[] expected = dateCodeBuilder.getEpochDaysForCode(code);
+            assertEquals(expected.length, output.get());
+            for (long epochDay : expected) {
+                assertEquals(epochDay, output.getInt());
+            }
+        }
+        assertFalse(output.hasRemaining());
+    }
+
+    @Test
+    public void testShortLinesWithoutFinalLineBreak() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        DateCodeFileDecoder decoder = new DateCodeFileDecoder(dateCodeBuilder, 0, ',');
+        DateCodeFileDecoder.Summary[] summary = new DateCodeFileDecoder.Summary[1];
+        String[] codes = {"A00", "B01", "", "C00"};
+
+        // Generate actual results
+        ByteBuffer output = decode(decoder, String.join("\n", codes), summary);
+
+        // Evaluate
+        assertEquals(codes.length, summary[0].getRecordCount());
+        for (String code : codes) {
+            long[] expected = code.isEmpty() ? new long[0] : dateCodeBuilder.getEpochDaysForCode(code);
+            assertEquals(expected.length, output.get());
+            for (long epochDay : expected) {
+                assertEquals(epochDay, output.getInt());
+            }
+        }
+        assertFalse(output.hasRemaining());
+    }
+
+    @Test
+    public void testBoundedBytesInFlight() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder("Surface");
+
+        // Room for only one 16 byte chunk at a time
+        DateCodeFileDecoder decoder = new DateCodeFileDecoder(dateCodeBuilder, 0, ',', 4, 16, 16);
+        DateCodeFileDecoder.Summary[] summary = new DateCodeFileDecoder.Summary[1];
+        StringBuilder contents = new StringBuilder();
+        for (int day = 1; day <= 366; day++) {
+            contents.append(String.format("%03d", day)).append('\n');
+        }
+
+        // Generate actual results
+        ByteBuffer output = decode(decoder, contents.toString(), summary);
+
+        // Evaluate
+        assertEquals(366, summary[0].getRecordCount());
+        for (int day = 1; day <= 366; day++) {
+            assertEquals(1, output.get());
+            assertEquals(dateCodeBuilder.getEpochDaysForCode(String.format("%03d", day))[0], output.getInt());
+        }
+        assertFalse(output.hasRemaining());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeIndexTest {
+    @Test
+    public void testRowBitmapMatchesBitSet() throws Exception {
+        RowBitmap rows = new RowBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(17);
+
+        // Dense and sparse groups, so both container kinds and the conversions between them are used
+        for (int i = 0; i < 200000; i++) {
+            int rowId = random.nextBoolean() ? random.nextInt(10000) : random.nextInt(1 << 24);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.get(rowId), rows.remove(rowId));
+                expected.clear(rowId);
+            } else {
+                assertEquals(!expected.get(rowId), rows.add(rowId));
+                expected.set(rowId);
+            }
+        }
+
+        // Evaluate
+        assertEquals(expected.cardinality(), rows.getCardinality());
+        assertArrayEquals(expected.stream().toArray(), rows.toArray());
+        assertTrue(rows.contains(expected.nextSetBit(0)));
+        assertFalse(rows.contains(expected.nextClearBit(0)));
+    }
+
+    @Test
+    public void testRowBitmapOr() throws Exception {
+        RowBitmap first = new RowBitmap();
+        RowBitmap second = new RowBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 6000; i++) {
+            first.add(i * 2);
+            second.add(i * 3);
+            second.add(100000 + i);
+            expected.set(i * 2);
+            expected.set(i * 3);
+            expected.set(100000 + i);
+        }
+
+        // Generate actual results
+        RowBitmap result = new RowBitmap();
+        result.or(first);
+        result.or(second);
+        first.add(1);
+
+        // Evaluate (the result owns its own copy of every group)
+        assertArrayEquals(expected.stream().toArray(), result.toArray());
+        assertFalse(result.contains(1));
+    }
+
+    @Test
+    public void testRowBitmapOrInPlace() throws Exception {
+        RowBitmap result = new RowBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(23);
+
+        // Many small sets merged into one, as an age query does, growing groups past the array limit
+        for (int set = 0; set < 200; set++) {
+            RowBitmap rows = new RowBitmap();
+            int bound = random.nextBoolean() ? 70000 : 1 << 22;
+            for (int i = 0; i < 100; i++) {
+                int rowId = random.nextInt(bound);
+                rows.add(rowId);
+                expected.set(rowId);
+            }
+            result.or(rows);
+            result.or(rows);
+        }
+
+        // Evaluate
+        assertEquals(expected.cardinality(), result.getCardinality());
+        assertArrayEquals(expected.stream().toArray(), result.toArray());
+    }
+
+    @Test
+    public void testRowsOlderThan() throws Exception {
+        DateCodeIndex index = new DateCodeIndex(new SurfaceDateCodeBuilder(CLOCK));
+        index.add(1, "075");
+        index.add(2, "074");
+        index.add(3, "045");
+        index.add(4, "001");
+        index.add(5, "045");
+
+        // Evaluate (March 15, 2016 is day 75)
+        assertArrayEquals(new int[]{2, 3, 4, 5}, index.getRowsOlderThan(0).toArray());
+        assertArrayEquals(new int[]{3, 4, 5}, index.getRowsOlderThan(29).toArray());
+        assertArrayEquals(new int[]{4}, index.getRowsOlderThan(30).toArray());
+        assertArrayEquals(new int[]{1, 2}, index.getRowsDecodedBetween(LocalDate.of(2016, 3, 14),
+                LocalDate.of(2016, 3, 15)).toArray());
+
+        assertTrue(index.remove(3, "045"));
+        assertFalse(index.remove(3, "045"));
+        assertEquals(4, index.getRowCount());
+        assertArrayEquals(new int[]{4, 5}, index.getRowsOlderThan(29).toArray());
+    }
+
+    @Test
+    public void testAirRowsResolveToMostRecentCandidate() throws Exception {
+        DateCodeIndex index = new DateCodeIndex(new AirDateCodeBuilder(CLOCK));
+        index.add(10, "K75");
+        index.add(11, "M75");
+        index.add(12, "A74");
+
+        // Evaluate (M75 is hour 11 and has not happened yet today, so it is from last year)
+        assertArrayEquals(new int[]{11, 12}, index.getRowsOlderThan(0).toArray());
+        assertArrayEquals(new int[]{11}, index.getRowsOlderThan(1).toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddMalformedCode() throws Exception {
+        // Expect method to throw exception
+        new DateCodeIndex(OceanDateCodeBuilder.getInstance()).add(1, "60001");
+    }
+}
@@ -0,0 +1,115 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeQueueTest {
+    @Test
+    public void testPollOldestFirst() throws Exception {
+        DateCodeQueue queue = new DateCodeQueue(new SurfaceDateCodeBuilder(CLOCK));
+
+        // Generate actual results
+        queue.offer(1, "075");
+        queue.offer(2, "060");
+        queue.offer(3, "070");
+        queue.offer(4, "075");
+
+        // Evaluate
+        assertEquals(ChronoUnit.DAYS, queue.getResolution());
+        assertEquals(4, queue.size());
+        assertEquals(LocalDate.of(2016, 2, 29).toEpochDay(), queue.peekKey());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertEquals(1, queue.poll());
+        assertEquals(4, queue.poll());
+        assertEquals(-1, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(Long.MIN_VALUE, queue.peekKey());
+    }
+
+    @Test
+    public void testHourBuckets() throws Exception {
+        DateCodeQueue queue = new DateCodeQueue(new AirDateCodeBuilder(CLOCK));
+
+        // Generate actual results
+        long key = queue.offer(1, "L75");
+        queue.offer(2, "K75");
+        queue.offer(3, "A75");
+        long[] items = new long[5];
+
+        // Evaluate
+        assertEquals(ChronoUnit.HOURS, queue.getResolution());
+        assertEquals(Instant.parse("2016-03-15T10:00:00Z").getEpochSecond() / 3600, key);
+        assertEquals(3, queue.poll(items, 1, 4));
+        assertArrayEquals(new long[]{0, 3, 2, 1, 0}, items);
+    }
+
+    @Test
+    public void testConcurrentOffers() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new OceanDateCodeBuilder(CLOCK);
+        DateCodeQueue queue = new DateCodeQueue(dateCodeBuilder);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Generate actual results
+        for (int thread = 0; thread < 4; thread++) {
+            int first = thread;
+            executor.execute(() -> {
+                for (int i = first; i < 4000; i += 4) {
+                    queue.offer(i, dateCodeBuilder.getCodeAt(i % dateCodeBuilder.getCodeSpaceSize()));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        long[] items = new long[5000];
+        int count = queue.poll(items, 0, items.length);
+
+        // Evaluate
+        assertEquals(4000, count);
+        long[] sorted = Arrays.copyOf(items, count);
+        Arrays.sort(sorted);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOfferMalformedCode() throws Exception {
+        new DateCodeQueue(new SurfaceDateCodeBuilder(CLOCK)).offer(1, "A75");
+    }
+}
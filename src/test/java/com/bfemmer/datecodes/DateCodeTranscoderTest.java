@@ -0,0 +1,86 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static com.bfemmer.datecodes.TestClocks.REFERENCE;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class DateCodeTranscoderTest {
+    @Test
+    public void testOceanToSurface() throws Exception {
+        DateCodeTranscoder transcoder = new DateCodeTranscoder(new OceanDateCodeBuilder(CLOCK),
+                new SurfaceDateCodeBuilder(CLOCK), REFERENCE, AmbiguityPolicy.REJECT);
+
+        // Evaluate
+        assertEquals("075", transcoder.transcode("6075"));
+        assertEquals("001", transcoder.transcode("6001"));
+        assertEquals("365", transcoder.transcode("5365"));
+    }
+
+    @Test
+    public void testAirToOceanMostRecent() throws Exception {
+        DateCodeTranscoder transcoder = new DateCodeTranscoder(new AirDateCodeBuilder(CLOCK),
+                new OceanDateCodeBuilder(CLOCK), REFERENCE, AmbiguityPolicy.MOST_RECENT);
+
+        // Evaluate
+        assertEquals("6075", transcoder.transcode("L75"));
+        assertEquals("5275", transcoder.transcode("M75"));
+        assertEquals("5280", transcoder.transcode("A80"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAirToOceanRejectsAmbiguousCode() throws Exception {
+        new DateCodeTranscoder(new AirDateCodeBuilder(CLOCK), new OceanDateCodeBuilder(CLOCK), REFERENCE,
+                AmbiguityPolicy.REJECT).transcode("L75");
+    }
+
+    @Test
+    public void testBulkTranscode() throws Exception {
+        DateCodeTranscoder transcoder = new DateCodeTranscoder(new OceanDateCodeBuilder(CLOCK),
+                new SurfaceDateCodeBuilder(CLOCK), REFERENCE, AmbiguityPolicy.REJECT);
+        ByteBuffer source = ByteBuffer.wrap("6075X0016001".getBytes(StandardCharsets.US_ASCII));
+        byte[] destination = "---------".getBytes(StandardCharsets.US_ASCII);
+        String[] targetCodes = new String[3];
+
+        // Generate actual results
+        BitSet rejectedCodes = transcoder.transcode(source, 0, 3, destination, 0);
+        int count = transcoder.transcode(new String[]{"6075", "X001", "6001"}, 0, 3, targetCodes, 0);
+
+        // Evaluate
+        assertEquals("075---001", new String(destination, StandardCharsets.US_ASCII));
+        assertEquals(1, rejectedCodes.cardinality());
+        assertTrue(rejectedCodes.get(1));
+        assertEquals(2, count);
+        assertArrayEquals(new String[]{"075", null, "001"}, targetCodes);
+    }
+}
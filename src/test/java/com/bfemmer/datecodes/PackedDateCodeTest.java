@@ -0,0 +1,128 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class PackedDateCodeTest {
+
+    @Test
+    public void testPackRoundTrip() throws Exception {
+        for (ConveyanceType conveyanceType : ConveyanceType.values()) {
+            DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+
+            // Evaluate
+            for (int i = 0; i < dateCodeBuilder.getCodeSpaceSize(); i++) {
+                String dateCode = dateCodeBuilder.getCodeAt(i);
+                int packedCode = PackedDateCode.pack(conveyanceType, dateCode);
+                assertEquals(conveyanceType, PackedDateCode.getConveyanceType(packedCode));
+                assertSame(dateCode, PackedDateCode.toString(packedCode));
+            }
+        }
+    }
+
+    @Test
+    public void testComponents() throws Exception {
+        int air = PackedDateCode.pack(ConveyanceType.AIR, "K75");
+        int ocean = PackedDateCode.pack(ConveyanceType.OCEAN, "6075");
+        int surface = PackedDateCode.pack(ConveyanceType.SURFACE, "366");
+
+        // Evaluate
+        assertEquals(9, PackedDateCode.getHourIndex(air));
+        assertEquals(75, PackedDateCode.getDayDigits(air));
+        assertEquals(air, PackedDateCode.ofAir(9, 75));
+        assertEquals(6, PackedDateCode.getYearDigit(ocean));
+        assertEquals(75, PackedDateCode.getDayOfYear(ocean));
+        assertEquals(ocean, PackedDateCode.ofOcean(6, 75));
+        assertEquals(366, PackedDateCode.getDayOfYear(surface));
+        assertEquals(surface, PackedDateCode.ofSurface(366));
+    }
+
+    @Test
+    public void testCompareGroupsByConveyanceType() throws Exception {
+        int[] packedCodes = {
+                PackedDateCode.ofSurface(1),
+                PackedDateCode.ofOcean(9, 1),
+                PackedDateCode.ofAir(0, 2),
+                PackedDateCode.ofOcean(0, 366),
+                PackedDateCode.ofAir(23, 1)};
+        Arrays.sort(packedCodes);
+
+        // Evaluate
+        assertEquals("Z01", PackedDateCode.toString(packedCodes[0]));
+        assertEquals("A02", PackedDateCode.toString(packedCodes[1]));
+        assertEquals("0366", PackedDateCode.toString(packedCodes[2]));
+        assertEquals("9001", PackedDateCode.toString(packedCodes[3]));
+        assertEquals("001", PackedDateCode.toString(packedCodes[4]));
+        assertTrue(PackedDateCode.compare(packedCodes[0], packedCodes[4]) < 0);
+    }
+
+    @Test
+    public void testEpochDays() throws Exception {
+        long epochMillis = System.currentTimeMillis();
+        int packedCode = PackedDateCode.ofEpochMillis(ConveyanceType.OCEAN, epochMillis);
+
+        // Evaluate
+        assertEquals(OceanDateCodeBuilder.getInstance().getCodeForEpochMillis(epochMillis),
+                PackedDateCode.toString(packedCode));
+        assertEquals(LocalDate.now().toEpochDay(), PackedDateCode.getEpochDays(packedCode)[0]);
+    }
+
+    @Test
+    public void testAirEpochDays() throws Exception {
+        // Air codes may decode to several days
+        int packedCode = PackedDateCode.pack(ConveyanceType.AIR, "A01");
+
+        // Evaluate
+        assertArrayEquals(AirDateCodeBuilder.getInstance().getEpochDaysForCode("A01"),
+                PackedDateCode.getEpochDays(packedCode));
+    }
+
+    @Test
+    public void testMalformedCodes() throws Exception {
+        // Evaluate
+        assertEquals(PackedDateCode.INVALID, PackedDateCode.tryPack(ConveyanceType.AIR, "I01"));
+        assertEquals(PackedDateCode.INVALID, PackedDateCode.tryPack(ConveyanceType.OCEAN, "6367"));
+        assertEquals(PackedDateCode.INVALID, PackedDateCode.tryPack(ConveyanceType.SURFACE, "1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPackMalformedCode() throws Exception {
+        // Expect method to throw exception
+        PackedDateCode.pack(ConveyanceType.SURFACE, "ABC");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongConveyanceTypeComponent() throws Exception {
+        // Expect method to throw exception
+        PackedDateCode.getHourIndex(PackedDateCode.ofSurface(1));
+    }
+}
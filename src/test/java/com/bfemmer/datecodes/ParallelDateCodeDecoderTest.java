@@ -0,0 +1,137 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class ParallelDateCodeDecoderTest {
+    private static void assertDecodesLikeBuilder(DateCodeBuilder dateCodeBuilder, String[] dateCodes) {
+        int[] offsets = new int[dateCodes.length + 1];
+        long[] epochDays;
+        DecodeStatusCounts counts;
+        try (ParallelDateCodeDecoder decoder = new ParallelDateCodeDecoder(dateCodeBuilder, 4, 7)) {
+            epochDays = new long[(int) decoder.getMaxEpochDayCount(dateCodes.length)];
+
+            // Generate actual results
+            counts = decoder.decode(dateCodes, 0, dateCodes.length, offsets, epochDays);
+        }
+
+        // Evaluate
+        assertEquals(dateCodes.length, counts.getTotalCount());
+        for (int i = 0; i < dateCodes.length; i++) {
+            long[] expected = dateCodeBuilder.isValidFormat(dateCodes[i])
+                    ? dateCodeBuilder.getEpochDaysForCode(dateCodes[i]) : new long[0];
+            assertArrayEquals("decode failed for " + dateCodes[i], expected,
+                    Arrays.copyOfRange(epochDays, offsets[i], offsets[i + 1]));
+        }
+    }
+
+    @Test
+    public void testAirConveyance() throws Exception {
+        DateCodeBuilder dateCodeBuilder = new AirDateCodeBuilder(CLOCK);
+        String[] dateCodes = new String[dateCodeBuilder.getCodeSpaceSize() + 2];
+        for (int i = 0; i < dateCodeBuilder.getCodeSpaceSize(); i++) {
+            dateCodes[i] = dateCodeBuilder.getCodeAt(i);
+        }
+        dateCodes[dateCodes.length - 2] = "I01";
+        dateCodes[dateCodes.length - 1] = "A1";
+
+        // Evaluate
+        assertDecodesLikeBuilder(dateCodeBuilder, dateCodes);
+    }
+
+    @Test
+    public void testOceanAndSurfaceConveyance() throws Exception {
+        // Evaluate
+        assertDecodesLikeBuilder(new OceanDateCodeBuilder(CLOCK),
+                new String[]{"6001", "6000", "5366", "X", "9075", "6001", "9075"});
+        assertDecodesLikeBuilder(new SurfaceDateCodeBuilder(CLOCK), new String[]{"001", "366", "367", "0a1"});
+    }
+
+    @Test
+    public void testListInputWithStatusCounts() throws Exception {
+        ParallelDateCodeDecoder decoder = new ParallelDateCodeDecoder(new SurfaceDateCodeBuilder(CLOCK));
+        List<String> dateCodes = new ArrayList<>();
+        for (int day = 0; day <= 400; day++) {
+            dateCodes.add(String.format("%03d", day));
+        }
+        int[] offsets = new int[dateCodes.size() + 1];
+        long[] epochDays = new long[dateCodes.size()];
+
+        // Generate actual results
+        DecodeStatusCounts counts = decoder.decode(dateCodes, offsets, epochDays);
+
+        // Evaluate
+        assertEquals(366, counts.getCount(DecodeStatus.OK));
+        assertEquals(35, counts.getCount(DecodeStatus.DAY_OUT_OF_RANGE));
+        assertEquals(366, offsets[dateCodes.size()]);
+        assertEquals(0, offsets[1]);
+        assertEquals(EpochDays.of(2016, 1, 1), epochDays[offsets[1]]);
+    }
+
+    @Test
+    public void testSuppliedPoolIsReused() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            DateCodeBuilder dateCodeBuilder = new OceanDateCodeBuilder(CLOCK);
+            ParallelDateCodeDecoder decoder = new ParallelDateCodeDecoder(dateCodeBuilder, pool, 2);
+            String[] dateCodes = {"6001", "X", "6075", "5366", "6002"};
+            int[] offsets = new int[dateCodes.length + 1];
+            long[] epochDays = new long[4];
+
+            for (int pass = 0; pass < 2; pass++) {
+                // Generate actual results
+                DecodeStatusCounts counts = decoder.decode(dateCodes, 0, dateCodes.length, offsets, epochDays);
+
+                // Evaluate
+                assertEquals(4, counts.getCount(DecodeStatus.OK));
+                assertArrayEquals(new int[]{0, 1, 1, 2, 3, 4}, offsets);
+                assertEquals(dateCodeBuilder.getEpochDaysForCode("6075")[0], epochDays[1]);
+                assertEquals(dateCodeBuilder.getEpochDaysForCode("6002")[0], epochDays[3]);
+            }
+            decoder.close();
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutputTooSmall() throws Exception {
+        ParallelDateCodeDecoder decoder = new ParallelDateCodeDecoder(new AirDateCodeBuilder(CLOCK));
+
+        // Expect method to throw exception
+        decoder.decode(new String[]{"A01", "A02"}, 0, 2, new int[3], new long[2]);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class PatternDateCodeBuilderTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2016-03-15T10:30:00Z"), ZoneId.of("GMT"));
+
+    @Test
+    public void testAirPatternMatchesAirBuilder() throws Exception {
+        DateCodeBuilder patternBuilder = PatternDateCodeBuilder.compile("H{A-Z minus I,O}DD", CLOCK);
+        DateCodeBuilder airBuilder = new AirDateCodeBuilder(CLOCK);
+
+        // Evaluate
+        assertEquals(airBuilder.getCodeSpaceSize(), patternBuilder.getCodeSpaceSize());
+        for (long millis = CLOCK.millis(); millis < CLOCK.millis() + 400 * EpochDays.MILLIS_PER_DAY;
+             millis += 7 * EpochDays.MILLIS_PER_HOUR) {
+            String dateCode = airBuilder.getCodeForEpochMillis(millis);
+            assertEquals(dateCode, patternBuilder.getCodeForEpochMillis(millis));
+            assertTrue(patternBuilder.isValidFormat(dateCode));
+        }
+        for (String dateCode : new String[]{"A01", "L75", "Z00", "k99"}) {
+            assertEquals(airBuilder.getDateTimesForCode(dateCode), patternBuilder.getDateTimesForCode(dateCode));
+        }
+        for (int i = 0; i < airBuilder.getCodeSpaceSize(); i++) {
+            String dateCode = airBuilder.getCodeAt(i);
+            assertArrayEquals(dateCode, airBuilder.getEpochDaysForCode(dateCode),
+                    patternBuilder.getEpochDaysForCode(dateCode));
+        }
+    }
+
+    @Test
+    public void testAirPatternIncludesFirstDayOfWindow() throws Exception {
+        DateCodeBuilder patternBuilder = PatternDateCodeBuilder.compile("H{A-Z minus I,O}DD", CLOCK);
+        DateCodeBuilder airBuilder = new AirDateCodeBuilder(CLOCK);
+
+        // Generate actual results
+        List<ZonedDateTime> dateTimes = patternBuilder.getDateTimesForCode("A74");
+
+        // Evaluate
+        assertEquals(airBuilder.getDateTimesForCode("A74"), dateTimes);
+        assertEquals(4, dateTimes.size());
+        assertEquals(Instant.parse("2015-03-15T00:00:00Z"), dateTimes.get(0).toInstant());
+    }
+
+    @Test
+    public void testDayOfYearPattern() throws Exception {
+        DateCodeBuilder dateCodeBuilder = PatternDateCodeBuilder.compile("YDDD", CLOCK);
+
+        // Evaluate
+        assertEquals("6075", dateCodeBuilder.getCode());
+        assertEquals(3660, dateCodeBuilder.getCodeSpaceSize());
+        assertEquals(Arrays.asList(LocalDate.of(2016, 3, 10)), dateCodeBuilder.getLocalDatesForCode("6070"));
+        assertEquals(Arrays.asList(LocalDate.of(2006, 3, 15), LocalDate.of(2016, 3, 14)),
+                dateCodeBuilder.getLocalDatesForCode("6074"));
+        assertEquals(Arrays.asList(LocalDate.of(2015, 3, 16)), dateCodeBuilder.getLocalDatesForCode("5075"));
+        assertEquals(DecodeStatus.DAY_OUT_OF_RANGE, dateCodeBuilder.getDecodeStatus("6367"));
+        assertEquals(DecodeStatus.NON_NUMERIC, dateCodeBuilder.getDecodeStatus("6O75"));
+    }
+
+    @Test
+    public void testWeekPatternWithLiteral() throws Exception {
+        DateCodeBuilder dateCodeBuilder = PatternDateCodeBuilder.compile("YY'W'WW", CLOCK);
+
+        // Evaluate
+        assertEquals("16W11", dateCodeBuilder.getCode());
+        assertEquals(5300, dateCodeBuilder.getCodeSpaceSize());
+        assertEquals(7, dateCodeBuilder.getLocalDatesForCode("15W11").size());
+        assertTrue(dateCodeBuilder.getLocalDatesForCode("16W11").contains(LocalDate.of(2016, 3, 11)));
+        assertEquals(DecodeStatus.BAD_LITERAL, dateCodeBuilder.getDecodeStatus("16X11"));
+        assertEquals(DecodeStatus.FIELD_OUT_OF_RANGE, dateCodeBuilder.getDecodeStatus("16W54"));
+        assertEquals(DecodeStatus.NON_NUMERIC, dateCodeBuilder.getDecodeStatus("16W1A"));
+        assertEquals(DecodeStatus.BAD_LENGTH, dateCodeBuilder.getDecodeStatus("16W1"));
+        assertEquals(dateCodeBuilder.getCodeIndex("16W11"),
+                dateCodeBuilder.getCodeIndex("x16W11".getBytes(StandardCharsets.US_ASCII), 1, 5));
+        assertEquals(-1, dateCodeBuilder.getCodeIndex("16X11".getBytes(StandardCharsets.US_ASCII), 0, 5));
+    }
+
+    @Test
+    public void testMostRecentCandidateOfCenturyPattern() throws Exception {
+        DateCodeBuilder dateCodeBuilder = PatternDateCodeBuilder.compile("YYDDD", CLOCK);
+
+        // Evaluate
+        assertEquals(Arrays.asList(LocalDate.of(2000, 3, 15)), dateCodeBuilder.getLocalDatesForCode("00075"));
+        assertEquals(LocalDate.of(2000, 3, 15),
+                dateCodeBuilder.getMostRecentCandidate("00075", CLOCK.instant()).get().toLocalDate());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPatternWithoutDayField() throws Exception {
+        PatternDateCodeBuilder.compile("YYhh");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPatternWithShortHourAlphabet() throws Exception {
+        PatternDateCodeBuilder.compile("H{A-Z minus I,O,Q}DD");
+    }
+
+    @Test(expected=NumberFormatException.class)
+    public void testNonNumericPatternCode() throws Exception {
+        PatternDateCodeBuilder.compile("YDDD", CLOCK).getEpochDaysForCode("6A75");
+    }
+
+    @Test
+    public void testRegisterPattern() throws Exception {
+        DateCodeBuilder dateCodeBuilder = DateCodeBuilderFactory.registerPattern("pattern-rail", "YYDDD");
+
+        try {
+            // Evaluate
+            assertSame(dateCodeBuilder, DateCodeBuilderFactory.getDateCodeBuilder("Pattern-Rail"));
+            assertEquals(5, dateCodeBuilder.getCodeLength());
+        } finally {
+            DateCodeBuilderFactory.unregisterDateCodeBuilder("pattern-rail");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class ResolutionPeriodTest {
+    private static final Instant NOW = Instant.parse("2016-03-15T10:59:00Z");
+
+    @Test
+    public void testHourOfHalfHourZone() throws Exception {
+        Clock clock = Clock.fixed(NOW, ZoneId.of("Asia/Kolkata"));
+
+        // Generate actual results
+        ResolutionPeriod period = ResolutionPeriod.of(PatternDateCodeBuilder.compile("hhDDD", clock),
+                NOW.toEpochMilli());
+
+        // Evaluate
+        assertEquals(Instant.parse("2016-03-15T10:30:00Z").toEpochMilli(), period.getStartMillis());
+        assertEquals(Instant.parse("2016-03-15T11:30:00Z").toEpochMilli(), period.getEndMillis());
+        assertTrue(period.contains(Instant.parse("2016-03-15T11:29:59.999Z").toEpochMilli()));
+        assertFalse(period.contains(Instant.parse("2016-03-15T11:30:00Z").toEpochMilli()));
+    }
+
+    @Test
+    public void testHourAndDayOfBuiltInBuilders() throws Exception {
+        Clock clock = Clock.fixed(NOW, ZoneId.of("UTC"));
+
+        // Generate actual results
+        ResolutionPeriod hour = ResolutionPeriod.of(new AirDateCodeBuilder(clock), NOW.toEpochMilli());
+        ResolutionPeriod day = ResolutionPeriod.of(new SurfaceDateCodeBuilder(clock), NOW.toEpochMilli());
+
+        // Evaluate
+        assertEquals(Instant.parse("2016-03-15T10:00:00Z").toEpochMilli(), hour.getStartMillis());
+        assertEquals(Instant.parse("2016-03-15T11:00:00Z").toEpochMilli(), hour.getEndMillis());
+        assertEquals(Instant.parse("2016-03-15T00:00:00Z").toEpochMilli(), day.getStartMillis());
+        assertEquals(Instant.parse("2016-03-16T00:00:00Z").toEpochMilli(), day.getEndMillis());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Fixed time shared by the tests, so every expected code and date is computed from one instant.
+ *
+ * @author bfemmer
+ */
+final class TestClocks {
+    static final ZoneId UTC = ZoneId.of("UTC");
+
+    /**
+     * Mid morning of a mid March day in a leap year, away from any day or year boundary
+     */
+    static final Instant REFERENCE = Instant.parse("2016-03-15T10:30:00Z");
+
+    static final Clock CLOCK = Clock.fixed(REFERENCE, UTC);
+
+    private TestClocks() {
+    }
+
+    /**
+     * Gets a UTC clock fixed at another instant, for tests where a boundary matters
+     *
+     * @param instant instant such as {@code 2016-12-31T23:30:00Z}
+     * @return fixed clock
+     */
+    static Clock fixedAt(String instant) {
+        return Clock.fixed(Instant.parse(instant), UTC);
+    }
+}
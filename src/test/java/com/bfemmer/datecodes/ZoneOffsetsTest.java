@@ -0,0 +1,96 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import org.junit.Test;
+import static com.bfemmer.datecodes.TestClocks.CLOCK;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author bfemmer
+ */
+public class ZoneOffsetsTest {
+    private static final String[] ZONES = {"UTC", "America/New_York", "Europe/London", "Asia/Kolkata",
+            "Australia/Lord_Howe", "Pacific/Apia"};
+
+    @Test
+    public void testOffsetsMatchZoneRules() throws Exception {
+        Random random = new Random(42);
+        long first = Instant.parse("1890-01-01T00:00:00Z").toEpochMilli();
+        long last = Instant.parse("2110-01-01T00:00:00Z").toEpochMilli();
+
+        for (String zoneName : ZONES) {
+            ZoneId zone = ZoneId.of(zoneName);
+            ZoneOffsets offsets = ZoneOffsets.of(zone);
+
+            // Evaluate
+            assertSame(offsets, ZoneOffsets.of(zone));
+            for (int i = 0; i < 100000; i++) {
+                long epochMillis = first + (long) (random.nextDouble() * (last - first));
+                assertEquals(zoneName + " at " + epochMillis,
+                        Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate().toEpochDay(),
+                        offsets.toEpochDay(epochMillis));
+            }
+        }
+    }
+
+    @Test
+    public void testOffsetAtTransition() throws Exception {
+        ZoneOffsets offsets = ZoneOffsets.of(ZoneId.of("America/New_York"));
+        long transition = Instant.parse("2016-03-13T07:00:00Z").toEpochMilli();
+
+        // Evaluate
+        assertEquals(-5 * EpochDays.MILLIS_PER_HOUR, offsets.getOffsetMillis(transition - 1));
+        assertEquals(-4 * EpochDays.MILLIS_PER_HOUR, offsets.getOffsetMillis(transition));
+    }
+
+    @Test
+    public void testMixedZoneEncoding() throws Exception {
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        ZoneId losAngeles = ZoneId.of("America/Los_Angeles");
+        long epochMillis = Instant.parse("2016-12-31T20:00:00Z").toEpochMilli();
+        DateCodeBuilder oceanBuilder = new OceanDateCodeBuilder(CLOCK);
+        byte[] destination = new byte[8];
+
+        // Generate actual results
+        oceanBuilder.encodeEpochMillis(new long[]{epochMillis, epochMillis}, new ZoneId[]{tokyo, losAngeles}, 0, 2,
+                destination, 0);
+
+        // Evaluate
+        assertEquals("70016366", new String(destination, StandardCharsets.US_ASCII));
+        assertEquals("001", new SurfaceDateCodeBuilder(CLOCK).getCodeForEpochMillis(epochMillis, tokyo));
+        assertEquals("W66", new AirDateCodeBuilder(CLOCK).getCodeForEpochMillis(epochMillis, tokyo));
+        ZonedDateTime local = Instant.ofEpochMilli(epochMillis).atZone(tokyo);
+        assertEquals(LocalDate.of(2017, 1, 1), local.toLocalDate());
+        assertEquals("17001F",
+                PatternDateCodeBuilder.compile("YYDDDH", CLOCK).getCodeForEpochMillis(epochMillis, tokyo));
+    }
+}